@@ -0,0 +1,115 @@
+package com.ciprian.store_management_tool.benchmark;
+
+import com.ciprian.store_management_tool.dto.ProductCreatedEvent;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost of sending a full page of products and a batch of created events in each wire format, with and without the
+ * gzip compression Tomcat applies above {@code server.compression.min-response-size}. The payload size is reported as
+ * the {@code bytes} secondary result, so CPU time and bytes on the wire can be compared side by side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogTransferBenchmark {
+
+    private static final int SIZE = 1000;
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectWriter pageWriter;
+
+    private ObjectWriter eventWriter;
+
+    private ProductView[] page;
+
+    private ProductCreatedEvent[] events;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = "cbor".equals(format)
+                ? Jackson2ObjectMapperBuilder.cbor()
+                : Jackson2ObjectMapperBuilder.json();
+        ObjectMapper objectMapper = builder
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()))
+                .build();
+        pageWriter = objectMapper.writerFor(ProductView[].class);
+        eventWriter = objectMapper.writerFor(ProductCreatedEvent[].class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductView> views = new ArrayList<>(SIZE);
+        List<ProductCreatedEvent> created = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            String barcode = String.format("%013d", 5_900_000_000_000L + i);
+            BigDecimal price = BigDecimal.valueOf(100 + i * 37L, 2);
+            views.add(new ProductView(barcode, "Product " + i, price, i % 250, now, now, (long) i % 5));
+            created.add(new ProductCreatedEvent(barcode, "Product " + i, price, i % 250, i));
+        }
+        page = views.toArray(ProductView[]::new);
+        events = created.toArray(ProductCreatedEvent[]::new);
+    }
+
+    @Benchmark
+    public byte[] serializePage(PayloadSize size) throws IOException {
+        return write(pageWriter, page, size);
+    }
+
+    @Benchmark
+    public byte[] serializeEvents(PayloadSize size) throws IOException {
+        return write(eventWriter, events, size);
+    }
+
+    private byte[] write(ObjectWriter writer, Object value, PayloadSize size) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8 * 1024) : bytes) {
+            writer.writeValue(out, value);
+        }
+        byte[] payload = bytes.toByteArray();
+        size.bytes = payload.length;
+        return payload;
+    }
+
+    /**
+     * Size of the last payload, the same for every invocation of a benchmark, reported in {@code jmh-result.json}.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+
+        public long bytes;
+    }
+}
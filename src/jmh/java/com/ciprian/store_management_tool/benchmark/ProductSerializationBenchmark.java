@@ -0,0 +1,72 @@
+package com.ciprian.store_management_tool.benchmark;
+
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of product pages, with an ObjectMapper configured like the one Spring Boot builds. An empty
+ * {@code fields} writes every field, otherwise only the listed ones, like the {@code fields} query parameter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"", "barcode,price"})
+    private String fields;
+
+    private ObjectWriter writer;
+
+    private List<ProductView> products;
+
+    @Setup
+    public void setUp() {
+        SimpleFilterProvider filters = new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+        if (!fields.isEmpty()) {
+            filters.addFilter(ProductView.FIELDS_FILTER,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(Set.of(fields.split(","))));
+        }
+        writer = Jackson2ObjectMapperBuilder.json().filters(filters).build()
+                .writerFor(ProductView.class.arrayType());
+        LocalDateTime now = LocalDateTime.now();
+        products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new ProductView(String.format("%08d", i), "Product " + i, new BigDecimal("19.99"), i,
+                    now, now, 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(products.toArray(ProductView[]::new));
+    }
+}
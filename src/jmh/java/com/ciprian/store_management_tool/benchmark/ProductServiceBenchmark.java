@@ -0,0 +1,138 @@
+package com.ciprian.store_management_tool.benchmark;
+
+import com.ciprian.store_management_tool.StoreManagementToolApplication;
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.configuration.CacheConfig;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service hot paths against the same PostgreSQL container and configuration as the integration tests,
+ * going through the Spring proxies so transactions, caching and the outbox writes are included.
+ * <p>
+ * The container runs next to the benchmark without a network round-trip, so the numbers are for comparing runs of
+ * the same machine, not an estimate of production latencies. {@code findByIdCached} mostly measures hits of the
+ * {@code products} cache once it is warm; {@code findByIdUncached} evicts the product first and reads it from
+ * Postgres every time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    private static final int PAGE_SIZE = 100;
+
+    private final AtomicLong nextBarcode = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService service;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Cache productsCache;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(StoreManagementToolApplication.class, TestConfig.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.org.springframework=ERROR")
+                .run();
+        service = context.getBean(ProductService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        productsCache = context.getBean(CacheManager.class).getCache(CacheConfig.PRODUCTS_CACHE);
+
+        List<Product> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(product(catalogBarcode(i)));
+        }
+        service.saveAll(catalog, 1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drainOutbox() {
+        // the relay is disabled in the test profile, so the outbox would otherwise only grow
+        jdbcTemplate.update("DELETE FROM product_outbox");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Product save() {
+        return service.save(product("new-" + nextBarcode.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<ProductView> findByIdCached() {
+        return service.findById(randomCatalogBarcode());
+    }
+
+    @Benchmark
+    public Optional<ProductView> findByIdUncached() {
+        String barcode = randomCatalogBarcode();
+        productsCache.evict(barcode);
+        return service.findById(barcode);
+    }
+
+    @Benchmark
+    public List<ProductView> findPage() {
+        return service.findPage(randomCatalogBarcode(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Optional<Product> updatePrice() {
+        BigDecimal price = BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100, 10_000), 2);
+        return service.updatePrice(randomCatalogBarcode(), price, null);
+    }
+
+    private static String randomCatalogBarcode() {
+        return catalogBarcode(ThreadLocalRandom.current().nextInt(CATALOG_SIZE));
+    }
+
+    private static String catalogBarcode(int index) {
+        return String.format("%08d", index);
+    }
+
+    private static Product product(String barcode) {
+        return Product.builder()
+                .barcode(barcode)
+                .name("Product " + barcode)
+                .price(new BigDecimal("19.99"))
+                .quantity(10)
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.ciprian.store_management_tool.benchmark;
+
+import com.ciprian.store_management_tool.StoreManagementToolApplication;
+import com.ciprian.store_management_tool.config.PostgresTestConfig;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load comparison of the servlet stack, on platform and on virtual threads, with the reactive stack. Hundreds of
+ * clients read product pages and stream the whole catalog as NDJSON over HTTP; compare the throughput and the
+ * {@code p0.99} sample-time percentile per {@code stack}. The reactive reads go over R2DBC to the same PostgreSQL
+ * container the servlet stack reads over JDBC.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductStackBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"servlet", "servlet-virtual", "reactive"})
+    public String stack;
+
+    @Param({"200"})
+    public int tomcatThreads;
+
+    @Param({"50"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(StoreManagementToolApplication.class, PostgresTestConfig.class,
+                StaticJwtConfig.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "logging.level.org.springframework=ERROR",
+                        "logging.level.com.ciprian.store_management_tool=WARN",
+                        "spring.main.web-application-type=" + ("reactive".equals(stack) ? "reactive" : "servlet"),
+                        "spring.webflux.base-path=/store-api/v1",
+                        "spring.threads.virtual.enabled=" + "servlet-virtual".equals(stack),
+                        "server.tomcat.threads.max=" + tomcatThreads,
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "spring.datasource.hikari.minimum-idle=" + poolSize,
+                        "spring.datasource.hikari.connection-timeout=30000",
+                        "products.reactive.r2dbc.max-size=" + poolSize)
+                .run();
+
+        List<Product> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(product(String.format("%08d", i)));
+        }
+        context.getBean(ProductService.class).saveAll(catalog, 1);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/store-api/v1/products";
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getPage() throws IOException, InterruptedException {
+        String after = String.format("%08d", ThreadLocalRandom.current().nextInt(CATALOG_SIZE));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?size=" + PAGE_SIZE + "&after=" + after))
+                .header("Authorization", "Bearer token")
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    /**
+     * Reads the NDJSON catalog as it arrives, without keeping it, the way an export client would.
+     */
+    @Benchmark
+    public long streamCatalog() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?fields=barcode,price"))
+                .header("Authorization", "Bearer token")
+                .header("Accept", "application/x-ndjson")
+                .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        long bytes = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream body = response.body()) {
+            for (int read; (read = body.read(buffer)) != -1; ) {
+                bytes += read;
+            }
+        }
+        return bytes;
+    }
+
+    private static Product product(String barcode) {
+        return Product.builder()
+                .barcode(barcode)
+                .name("Product " + barcode)
+                .price(new BigDecimal("19.99"))
+                .quantity(10)
+                .build();
+    }
+
+    /**
+     * Accepts any bearer token as a customer on both stacks, so the load test does not depend on Keycloak.
+     */
+    @TestConfiguration
+    static class StaticJwtConfig {
+
+        private static final Jwt JWT = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("load-test")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .claim("realm_access", Map.of("roles", List.of("ROLE_USER")))
+                .build();
+
+        @Bean
+        JwtDecoder jwtDecoder() {
+            return token -> JWT;
+        }
+
+        @Bean
+        ReactiveJwtDecoder reactiveJwtDecoder() {
+            return token -> Mono.just(JWT);
+        }
+    }
+}
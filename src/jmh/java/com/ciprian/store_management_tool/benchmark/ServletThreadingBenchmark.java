@@ -0,0 +1,222 @@
+package com.ciprian.store_management_tool.benchmark;
+
+import com.ciprian.store_management_tool.StoreManagementToolApplication;
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test of the servlet stack with platform threads against virtual threads. Hundreds of clients read product
+ * pages over HTTP while every statement waits {@code dbLatencyMs}, standing in for the network round-trip to a
+ * remote Postgres that the local test container does not have. Compare the throughput and the {@code p0.99}
+ * sample-time percentile of both {@code virtualThreads} values: with platform threads requests queue for a Tomcat
+ * worker, with virtual threads they queue for a Hikari connection.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(800)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServletThreadingBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"5"})
+    public int dbLatencyMs;
+
+    @Param({"200"})
+    public int tomcatThreads;
+
+    @Param({"50"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(StoreManagementToolApplication.class, TestConfig.class,
+                LatencyConfig.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "logging.level.org.springframework=ERROR",
+                        "logging.level.com.ciprian.store_management_tool=WARN",
+                        "benchmark.db-latency-ms=" + dbLatencyMs,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + tomcatThreads,
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "spring.datasource.hikari.minimum-idle=" + poolSize,
+                        "spring.datasource.hikari.connection-timeout=30000")
+                .run();
+
+        Instant now = Instant.now();
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("load-test")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("realm_access", Map.of("roles", List.of("ROLE_USER")))
+                .build();
+        when(context.getBean(JwtDecoder.class).decode(anyString())).thenReturn(jwt);
+
+        List<Product> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(product(String.format("%08d", i)));
+        }
+        context.getBean(ProductService.class).saveAll(catalog, 1);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/store-api/v1/products";
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int getPage() throws IOException, InterruptedException {
+        String after = String.format("%08d", ThreadLocalRandom.current().nextInt(CATALOG_SIZE));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?size=" + PAGE_SIZE + "&after=" + after))
+                .header("Authorization", "Bearer token")
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private static Product product(String barcode) {
+        return Product.builder()
+                .barcode(barcode)
+                .name("Product " + barcode)
+                .price(new BigDecimal("19.99"))
+                .quantity(10)
+                .build();
+    }
+
+    /**
+     * Delays every statement execution by {@code benchmark.db-latency-ms} while the connection is held,
+     * the way a network round-trip to the database would.
+     */
+    @TestConfiguration
+    static class LatencyConfig {
+
+        @Bean
+        static BeanPostProcessor latencyDataSourcePostProcessor(Environment environment) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    long latencyMs = environment.getProperty("benchmark.db-latency-ms", Long.class, 0L);
+                    // only the pool the application uses, other data sources keep their own type
+                    if (latencyMs > 0 && "dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                        return new DelayingDataSource(dataSource, latencyMs);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        /**
+         * Hands out delaying connections, while {@link DelegatingDataSource#unwrap} still reaches the Hikari pool
+         * for its metrics.
+         */
+        static class DelayingDataSource extends DelegatingDataSource {
+
+            private final long latencyMs;
+
+            DelayingDataSource(DataSource target, long latencyMs) {
+                super(target);
+                this.latencyMs = latencyMs;
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return delayingProxy(Connection.class, super.getConnection(), latencyMs);
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return delayingProxy(Connection.class, super.getConnection(username, password), latencyMs);
+            }
+        }
+
+        private static <T> T delayingProxy(Class<T> type, T target, long latencyMs) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute") && target instanceof PreparedStatement) {
+                    Thread.sleep(latencyMs);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof Connection connection) {
+                        return delayingProxy(Connection.class, connection, latencyMs);
+                    }
+                    if (result instanceof PreparedStatement statement) {
+                        return delayingProxy(PreparedStatement.class, statement, latencyMs);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.ciprian.store_management_tool.benchmark;
+
+import com.ciprian.store_management_tool.StoreManagementToolApplication;
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.service.ProductService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Heap kept per request by the stateless security configuration against the same application storing its
+ * security context in an HTTP session, as {@code SessionCreationPolicy.IF_REQUIRED} would. Each invocation sends
+ * {@value #REQUESTS} authenticated requests from a client that ignores cookies, like most API clients do, and reports
+ * the heap still in use after a full GC, divided by the number of requests, as the {@code retainedBytesPerRequest}
+ * secondary result. The primary score is the time of the whole batch.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class SessionHeapBenchmark {
+
+    private static final int REQUESTS = 10_000;
+
+    private static final int CATALOG_SIZE = 1000;
+
+    @Param({"false", "true"})
+    public boolean httpSessions;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(StoreManagementToolApplication.class, TestConfig.class,
+                SessionConfig.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "logging.level.org.springframework=ERROR",
+                        "logging.level.com.ciprian.store_management_tool=WARN",
+                        "benchmark.http-sessions=" + httpSessions)
+                .run();
+
+        Instant now = Instant.now();
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("load-test")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("realm_access", Map.of("roles", List.of("ROLE_USER")))
+                .build();
+        when(context.getBean(JwtDecoder.class).decode(anyString())).thenReturn(jwt);
+
+        List<Product> catalog = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog.add(product(String.format("%08d", i)));
+        }
+        context.getBean(ProductService.class).saveAll(catalog, 1);
+
+        // no cookie handler, so every request starts without a session
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/store-api/v1/products/";
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void requests(HeapCounters counters) throws IOException, InterruptedException {
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + String.format("%08d", i % CATALOG_SIZE)))
+                    .header("Authorization", "Bearer token")
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode());
+            }
+        }
+        counters.retainedBytesPerRequest = Math.max(0, usedHeapAfterGc() - before) / REQUESTS;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static Product product(String barcode) {
+        return Product.builder()
+                .barcode(barcode)
+                .name("Product " + barcode)
+                .price(new BigDecimal("19.99"))
+                .quantity(10)
+                .build();
+    }
+
+    /**
+     * Reported next to the batch time in {@code jmh-result.json}.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class HeapCounters {
+
+        public long retainedBytesPerRequest;
+    }
+
+    /**
+     * With {@code benchmark.http-sessions=true}, stores the authenticated security context of every request in its
+     * HTTP session, the way {@link HttpSessionSecurityContextRepository} does for a stateful configuration.
+     */
+    @TestConfiguration
+    static class SessionConfig {
+
+        @Bean
+        @ConditionalOnProperty(name = "benchmark.http-sessions", havingValue = "true")
+        FilterRegistrationBean<OncePerRequestFilter> sessionSecurityContextFilter() {
+            // registered after the security filter chain, so the bearer token is already authenticated here
+            return new FilterRegistrationBean<>(new OncePerRequestFilter() {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                FilterChain filterChain) throws ServletException, IOException {
+                    request.getSession().setAttribute(
+                            HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                            SecurityContextHolder.getContext());
+                    filterChain.doFilter(request, response);
+                }
+            });
+        }
+    }
+}
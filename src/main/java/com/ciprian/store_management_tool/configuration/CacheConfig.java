@@ -0,0 +1,15 @@
+package com.ciprian.store_management_tool.configuration;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// runs the cache advice around the transaction, so evictions happen after commit
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    // size, TTL and stats are set through spring.cache.caffeine.spec
+    public static final String PRODUCTS_CACHE = "products";
+
+}
@@ -0,0 +1,103 @@
+package com.ciprian.store_management_tool.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Authenticates bearer tokens like the default JWT resource server, but remembers the result until the token
+ * expires. Clients reuse the same token for many calls, so signature verification and role extraction only run
+ * once per token. Entries are keyed by a SHA-256 hash of the token and tokens that fail validation are not cached.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+    static final String CACHE_NAME = "jwt-authentications";
+
+    private final JwtAuthenticationProvider delegate;
+
+    private final Cache<String, JwtAuthenticationToken> authentications;
+
+    public CachingJwtAuthenticationManager(JwtDecoder jwtDecoder,
+                                           JwtAuthenticationConverter jwtAuthenticationConverter,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${security.jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.delegate = new JwtAuthenticationProvider(jwtDecoder);
+        this.delegate.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+        this.authentications = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, authentications, CACHE_NAME);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        BearerTokenAuthenticationToken bearer = (BearerTokenAuthenticationToken) authentication;
+        JwtAuthenticationToken verified = authentications.get(hash(bearer.getToken()),
+                key -> (JwtAuthenticationToken) delegate.authenticate(bearer));
+
+        // a new token per request, so the request details are not shared between requests
+        JwtAuthenticationToken result = new JwtAuthenticationToken(
+                verified.getToken(), verified.getAuthorities(), verified.getName());
+        result.setDetails(bearer.getDetails());
+        return result;
+    }
+
+    long cachedCount() {
+        authentications.cleanUp();
+        return authentications.estimatedSize();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // tokens without an expiry are not kept at all
+    private static final class UntilTokenExpires implements Expiry<String, JwtAuthenticationToken> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtAuthenticationToken value, long currentTime) {
+            Instant expiresAt = value.getToken().getExpiresAt();
+            if (expiresAt == null) {
+                return 0;
+            }
+            return Math.max(Duration.between(Instant.now(), expiresAt).toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtAuthenticationToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtAuthenticationToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ciprian.store_management_tool.configuration;
+
+import com.ciprian.store_management_tool.service.CatalogVersion;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CatalogVersionConfig {
+
+    /**
+     * With read replicas, pages may be read from a replica, so the catalog ETag only moves once the replicas can
+     * have the change. {@link ReplicaProperties} is only bound when {@link ReplicaRoutingConfig} is active.
+     */
+    @Bean
+    public CatalogVersion catalogVersion(ObjectProvider<ReplicaProperties> replicaProperties) {
+        ReplicaProperties replicas = replicaProperties.getIfAvailable();
+        return new CatalogVersion(replicas != null ? replicas.staleness() : Duration.ZERO);
+    }
+}
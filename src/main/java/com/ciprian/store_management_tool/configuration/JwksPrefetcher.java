@@ -0,0 +1,49 @@
+package com.ciprian.store_management_tool.configuration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Resolves the issuer metadata and fetches the signing keys at startup, so the first requests do not wait for
+ * Keycloak. {@link JwtDecoder} has no method for this, so a token signed with an unknown key is decoded: looking
+ * the key up loads the JWK set, and the token itself is then rejected as a {@link BadJwtException}. Any other
+ * failure, such as a JWK set that could not be retrieved, means nothing was prefetched.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.jwt.jwks-prefetch.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JwksPrefetcher implements ApplicationRunner {
+
+    static final String PREFETCH_TOKEN = encode("{\"alg\":\"RS256\",\"kid\":\"jwks-prefetch\"}")
+            + "." + encode("{\"sub\":\"jwks-prefetch\"}")
+            + "." + encode("signature");
+
+    private final JwtDecoder jwtDecoder;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jwtDecoder.decode(PREFETCH_TOKEN);
+        } catch (BadJwtException e) {
+            log.info("Prefetched the JWT signing keys: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Could not prefetch the JWT signing keys, the first request will load them: {}", e.getMessage());
+        }
+    }
+
+    private static String encode(String part) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(part.getBytes(StandardCharsets.UTF_8));
+    }
+}
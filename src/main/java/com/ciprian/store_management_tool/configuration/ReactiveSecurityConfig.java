@@ -0,0 +1,108 @@
+package com.ciprian.store_management_tool.configuration;
+
+import com.ciprian.store_management_tool.controller.GlobalExceptionHandler;
+import com.ciprian.store_management_tool.exception.AccessDeniedStoreException;
+import com.ciprian.store_management_tool.exception.AuthenticationStoreException;
+import com.ciprian.store_management_tool.exception.StoreException;
+import com.ciprian.store_management_tool.exception.StoreExceptionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.authorization.ServerAccessDeniedHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.savedrequest.NoOpServerRequestCache;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * The rules of {@link SecurityConfig} for the reactive stack, with the same JSON error bodies. WebFlux has no
+ * handler exception resolver to reuse here, so the errors are written directly.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Value("${role.admin:ADMIN}")
+    private String adminRole;
+
+    @Value("${role.user:USER}")
+    private String customerRole;
+
+    @Bean
+    SecurityWebFilterChain reactiveFilterChain(ServerHttpSecurity http,
+                                               JwtAuthenticationConverter jwtAuthenticationConverter,
+                                               ObjectMapper objectMapper) {
+        ServerAuthenticationEntryPoint authenticationEntryPoint = (exchange, authException) -> {
+            AuthenticationStoreException storeException =
+                    AuthenticationStoreException.fromMessage(authException.getMessage());
+            return writeError(exchange, objectMapper, storeException,
+                    storeException.getHttpStatus(), storeException.getExceptionType());
+        };
+        ServerAccessDeniedHandler accessDeniedHandler = (exchange, accessDeniedException) -> {
+            AccessDeniedStoreException storeException = new AccessDeniedStoreException(
+                    StoreExceptionType.ACCESS_DENIED, accessDeniedException.getMessage());
+            return writeError(exchange, objectMapper, storeException,
+                    storeException.getHttpStatus(), storeException.getExceptionType());
+        };
+
+        http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                // stateless like the servlet stack: every request carries its bearer token
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .requestCache(cache -> cache.requestCache(NoOpServerRequestCache.getInstance()));
+
+        http.authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/actuator/**").permitAll()
+                        // not served here, but only admins learn that, as on the servlet stack
+                        .pathMatchers("/products/snapshot").hasRole(adminRole)
+                        .pathMatchers(HttpMethod.POST, "/products", "/products/batch", "/products/stock", "/products/*/stock").hasRole(adminRole)
+                        .pathMatchers(HttpMethod.PATCH, "/products/**").hasRole(adminRole)
+                        .pathMatchers(HttpMethod.DELETE, "/products/**").hasRole(adminRole)
+                        .pathMatchers(HttpMethod.GET, "/products/**").hasAnyRole(adminRole, customerRole)
+                        .anyExchange()
+                        .denyAll()
+                )
+                .exceptionHandling(handling -> handling
+                        .authenticationEntryPoint(authenticationEntryPoint)
+                        .accessDeniedHandler(accessDeniedHandler)
+                );
+
+        http.oauth2ResourceServer(oauth2 -> oauth2
+                .jwt(jwt -> jwt.jwtAuthenticationConverter(
+                        new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter)))
+                .authenticationEntryPoint(authenticationEntryPoint)
+                .accessDeniedHandler(accessDeniedHandler)
+        );
+
+        return http.build();
+    }
+
+    private static Mono<Void> writeError(ServerWebExchange exchange, ObjectMapper objectMapper,
+                                         StoreException exception, HttpStatus status, StoreExceptionType type) {
+        GlobalExceptionHandler.ErrorResponse body = new GlobalExceptionHandler.ErrorResponse(
+                exception.getMessage(), type.name(), exception.getTimestamp());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ciprian.store_management_tool.configuration;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps the read-only transactions of the annotated method on the primary when read replicas are enabled, for
+ * reads that must never see a replica that is behind. Has no effect without replicas.
+ *
+ * @see ReadFromPrimaryAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromPrimary {
+}
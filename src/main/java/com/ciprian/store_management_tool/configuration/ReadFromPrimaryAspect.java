@@ -0,0 +1,39 @@
+package com.ciprian.store_management_tool.configuration;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the calls of {@link ReadFromPrimary} methods for the {@link ReplicaDataSource}. It runs before the
+ * transaction and cache interceptors, so the mark is already set when the transaction takes its connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "products.replicas.enabled", havingValue = "true")
+public class ReadFromPrimaryAspect {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    @Around("@annotation(com.ciprian.store_management_tool.configuration.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (PRIMARY.get() != null) {
+            return joinPoint.proceed();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    static boolean isActive() {
+        return PRIMARY.get() != null;
+    }
+}
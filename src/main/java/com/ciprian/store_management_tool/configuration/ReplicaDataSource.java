@@ -0,0 +1,236 @@
+package com.ciprian.store_management_tool.configuration;
+
+import com.ciprian.store_management_tool.service.RecentWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connections for read-only transactions. They come from the replicas in turn, skipping every replica that was
+ * more than {@code products.replicas.max-lag-ms} behind at its last check or could not be reached. The primary
+ * serves the read instead when no replica is usable, within {@link ReadFromPrimary} methods, and when the current
+ * client wrote within the {@link ReplicaProperties#staleness()} window, so clients always read their own writes.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    // WAL positions in bytes; the replay position is null on a server that is not a replica
+    private static final String POSTGRES_PRIMARY_POSITION_SQL = "SELECT CAST(pg_current_wal_lsn() - '0/0' AS BIGINT)";
+
+    private static final String POSTGRES_REPLAY_POSITION_SQL =
+            "SELECT CAST(pg_last_wal_replay_lsn() - '0/0' AS BIGINT)";
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final RecentWrites recentWrites;
+
+    private final long maxLagMs;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile Boolean primaryIsPostgres;
+
+    private final Counter lagging;
+
+    private final Counter readYourWrites;
+
+    private final Counter primaryReads;
+
+    public ReplicaDataSource(DataSource primary, ReplicaProperties properties, RecentWrites recentWrites,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.recentWrites = recentWrites;
+        this.maxLagMs = properties.maxLagMs();
+        this.replicas = new ArrayList<>(properties.datasources().size());
+        for (ReplicaProperties.Replica settings : properties.datasources()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + replicas.size());
+            pool.setJdbcUrl(settings.url());
+            pool.setUsername(settings.username());
+            pool.setPassword(settings.password());
+            pool.setMaximumPoolSize(properties.maximumPoolSize());
+            pool.setConnectionTimeout(2000);
+            pool.setReadOnly(true);
+            pool.setMetricRegistry(meterRegistry);
+            Replica replica = new Replica(pool.getPoolName(), pool);
+            Gauge.builder("products.replica.lag", replica, Replica::lag)
+                    .description("Replay lag of the replica at its last check, -1 if unknown or it could not be reached")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            replicas.add(replica);
+        }
+        this.lagging = fallbacks(meterRegistry, "no-replica");
+        this.readYourWrites = fallbacks(meterRegistry, "read-your-writes");
+        this.primaryReads = fallbacks(meterRegistry, "read-from-primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadFromPrimaryAspect.isActive()) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        if (recentWrites.wroteRecently()) {
+            readYourWrites.increment();
+            return primary.getConnection();
+        }
+        List<Replica> usable = replicas.stream().filter(replica -> replica.usable).toList();
+        if (usable.isEmpty()) {
+            lagging.increment();
+            return primary.getConnection();
+        }
+        Replica replica = usable.get(Math.floorMod(next.getAndIncrement(), usable.size()));
+        try {
+            return replica.pool.getConnection();
+        } catch (SQLException e) {
+            log.warn("Reading from the primary, replica {} is unavailable: {}", replica.name, e.getMessage());
+            replica.usable = false;
+            lagging.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    /**
+     * Measures the lag of every replica against the WAL position of the primary, see {@link ReplayTracker}.
+     * Replicas start unusable until their first check.
+     */
+    @Scheduled(fixedDelayString = "${products.replicas.check-interval-ms:250}")
+    public void checkLag() {
+        long now = System.currentTimeMillis();
+        long primaryPosition;
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(primary);
+            if (primaryIsPostgres == null) {
+                primaryIsPostgres = isPostgres(jdbcTemplate);
+            }
+            primaryPosition = primaryIsPostgres
+                    ? jdbcTemplate.queryForObject(POSTGRES_PRIMARY_POSITION_SQL, Long.class) : 0;
+        } catch (RuntimeException e) {
+            log.warn("Could not check the replica lag, the WAL position of the primary is unknown: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            try {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.pool);
+                if (replica.postgres == null) {
+                    replica.postgres = isPostgres(jdbcTemplate);
+                }
+                Long replayPosition = replica.postgres
+                        ? jdbcTemplate.queryForObject(POSTGRES_REPLAY_POSITION_SQL, Long.class) : Long.valueOf(0);
+                replica.lagMs = replica.tracker.lag(primaryPosition, replayPosition, now);
+                boolean usable = replica.lagMs >= 0 && replica.lagMs <= maxLagMs;
+                if (usable != replica.usable) {
+                    log.info("Replica {} is {} {} ms behind the primary", replica.name,
+                            usable ? "back in use," : "out of use,", replica.lagMs);
+                }
+                replica.usable = usable;
+            } catch (RuntimeException e) {
+                if (replica.usable) {
+                    log.warn("Replica {} is out of use, the lag check failed: {}", replica.name, e.getMessage());
+                }
+                replica.lagMs = -1;
+                replica.usable = false;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static Counter fallbacks(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("products.replica.fallbacks")
+                .description("Read-only transactions sent to the primary instead of a replica")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final HikariDataSource pool;
+
+        private final ReplayTracker tracker = new ReplayTracker();
+
+        private volatile Boolean postgres;
+
+        private volatile long lagMs = -1;
+
+        private volatile boolean usable;
+
+        private Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        private double lag() {
+            return lagMs;
+        }
+    }
+
+    /**
+     * Estimates the lag of a replica from the WAL position of the primary at each check. A position the replica
+     * has replayed means it has every change committed before that check. Comparing with the primary, rather than
+     * with what the replica received, also catches a replica whose WAL stream broke while it replayed everything it
+     * had received.
+     */
+    static final class ReplayTracker {
+
+        // time of the last check whose primary position the replica has replayed
+        private long replayedAt = Long.MIN_VALUE;
+
+        // the primary position of a later check the replica has not replayed yet, -1 if none
+        private long markPosition = -1;
+
+        private long markTime;
+
+        /**
+         * @param replayPosition null if the server is not a replica, which has nothing to replay
+         * @return the lag in milliseconds, an upper bound within one check interval, or -1 while it is unknown
+         */
+        synchronized long lag(long primaryPosition, Long replayPosition, long now) {
+            if (replayPosition == null || replayPosition >= primaryPosition) {
+                replayedAt = now;
+                markPosition = -1;
+            } else {
+                if (markPosition >= 0 && replayPosition >= markPosition) {
+                    replayedAt = markTime;
+                    markPosition = -1;
+                }
+                if (markPosition < 0) {
+                    markPosition = primaryPosition;
+                    markTime = now;
+                }
+            }
+            return replayedAt == Long.MIN_VALUE ? -1 : now - replayedAt;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ciprian.store_management_tool.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas under {@code products.replicas}. Read-only transactions go to a replica that was at most
+ * {@code max-lag-ms} behind the primary at its last check, made every {@code check-interval-ms}.
+ *
+ * @param maximumPoolSize connections of each replica pool
+ */
+@ConfigurationProperties("products.replicas")
+public record ReplicaProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue("1000") long maxLagMs,
+                                @DefaultValue("250") long checkIntervalMs,
+                                @DefaultValue("10") int maximumPoolSize,
+                                List<Replica> datasources) {
+
+    public ReplicaProperties {
+        datasources = datasources != null ? List.copyOf(datasources) : List.of();
+    }
+
+    /**
+     * How far a replica read can be behind the primary: the lag limit plus the time until the next check.
+     */
+    public Duration staleness() {
+        return Duration.ofMillis(maxLagMs + checkIntervalMs);
+    }
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.ciprian.store_management_tool.configuration;
+
+import com.ciprian.store_management_tool.service.RecentWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to the {@code products.replicas} and everything else to the primary configured
+ * under {@code spring.datasource}. The {@link LazyConnectionDataSourceProxy} only takes a connection at the first
+ * statement, once the transaction is known to be read-only, and takes it from the {@link ReplicaDataSource} then.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    ReplicaDataSource replicaDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                        ReplicaProperties properties, RecentWrites recentWrites,
+                                        MeterRegistry meterRegistry) {
+        return new ReplicaDataSource(primaryDataSource, properties, recentWrites, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                          ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
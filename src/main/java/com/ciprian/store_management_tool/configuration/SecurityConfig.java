@@ -1,28 +1,28 @@
 package com.ciprian.store_management_tool.configuration;
 
 import com.ciprian.store_management_tool.exception.AuthenticationStoreException;
-import com.ciprian.store_management_tool.exception.StoreExceptionType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.core.session.SessionRegistryImpl;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.AccessDeniedHandler;
-import org.springframework.security.web.authentication.session.RegisterSessionAuthenticationStrategy;
-import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
-import org.springframework.security.web.session.HttpSessionEventPublisher;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 @Slf4j
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     private final HandlerExceptionResolver handlerExceptionResolver;
@@ -38,14 +38,24 @@ public class SecurityConfig {
     private String customerRole;
 
     @Bean
-    SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
+    SecurityFilterChain filterChain(HttpSecurity http, CachingJwtAuthenticationManager jwtAuthenticationManager) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable);
 
+        // every request carries its bearer token, so nothing is kept in or read from an HTTP session;
+        // the context only lives in a request attribute, where async dispatches of streamed responses find it
+        http.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()));
+
         http.authorizeHttpRequests(requests -> requests
                         .requestMatchers("/actuator/**").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/products").hasRole(adminRole)
+                        .requestMatchers(HttpMethod.POST, "/products/availability").hasAnyRole(adminRole, customerRole)
+                        .requestMatchers(HttpMethod.POST, "/products", "/products/batch", "/products/stock", "/products/*/stock",
+                                "/products/*/stores/*/stock", "/products/snapshot").hasRole(adminRole)
+                        .requestMatchers(HttpMethod.PUT, "/products/*/stores/*").hasRole(adminRole)
                         .requestMatchers(HttpMethod.PATCH, "/products/**").hasRole(adminRole)
                         .requestMatchers(HttpMethod.DELETE, "/products/**").hasRole(adminRole)
+                        .requestMatchers(HttpMethod.GET, "/products/snapshot").hasRole(adminRole)
                         .requestMatchers(HttpMethod.GET, "/products/**").hasAnyRole(adminRole, customerRole)
                         .anyRequest()
                         .denyAll()
@@ -57,7 +67,7 @@ public class SecurityConfig {
                 );
 
         http.oauth2ResourceServer(oauth2 -> oauth2
-                .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
+                .jwt(jwt -> jwt.authenticationManager(jwtAuthenticationManager))
                 .authenticationEntryPoint(authenticationEntryPoint())
                 .accessDeniedHandler(accessDeniedHandler())
         );
@@ -65,31 +75,10 @@ public class SecurityConfig {
         return http.build();
     }
 
-    @Bean
-    protected SessionAuthenticationStrategy sessionAuthenticationStrategy() {
-        return new RegisterSessionAuthenticationStrategy(new SessionRegistryImpl());
-    }
-
-    @Bean
-    public HttpSessionEventPublisher httpSessionEventPublisher() {
-        return new HttpSessionEventPublisher();
-    }
-
     @Bean
     public AuthenticationEntryPoint authenticationEntryPoint() {
-        return (request, response, authException) -> {
-
-            AuthenticationStoreException storeException;
-            if (authException.getMessage() != null && authException.getMessage().contains("expired")) {
-                storeException = new AuthenticationStoreException(StoreExceptionType.TOKEN_EXPIRED);
-            } else if (authException.getMessage() != null && authException.getMessage().contains("invalid")) {
-                storeException = new AuthenticationStoreException(StoreExceptionType.TOKEN_INVALID);
-            } else {
-                storeException = new AuthenticationStoreException(StoreExceptionType.AUTHENTICATION_REQUIRED);
-            }
-
-            handlerExceptionResolver.resolveException(request, response, null, storeException);
-        };
+        return (request, response, authException) -> handlerExceptionResolver.resolveException(
+                request, response, null, AuthenticationStoreException.fromMessage(authException.getMessage()));
     }
 
     private AccessDeniedHandler accessDeniedHandler() {
@@ -0,0 +1,50 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.ciprian.store_management_tool.dto.CatalogSnapshotSummary;
+import com.ciprian.store_management_tool.service.CatalogSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/products/snapshot")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CatalogSnapshotController {
+
+    private static final String FILE_NAME = "catalog.smtsnap";
+
+    private final CatalogSnapshotService service;
+
+    @GetMapping(produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = service::exportTo;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(FILE_NAME).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Loads a snapshot written by the export. With {@code events=false} no outbox events are written, for seeding
+     * an environment whose consumers load the catalog on their own.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<CatalogSnapshotSummary> load(InputStream body,
+                                                       @RequestParam(defaultValue = "true") boolean events)
+            throws IOException {
+        return ResponseEntity.ok(service.importFrom(body, events));
+    }
+}
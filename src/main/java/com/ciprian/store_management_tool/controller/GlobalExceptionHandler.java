@@ -2,18 +2,34 @@ package com.ciprian.store_management_tool.controller;
 
 import com.ciprian.store_management_tool.exception.AccessDeniedStoreException;
 import com.ciprian.store_management_tool.exception.AuthenticationStoreException;
+import com.ciprian.store_management_tool.exception.ChangesTokenException;
 import com.ciprian.store_management_tool.exception.DuplicateProductException;
+import com.ciprian.store_management_tool.exception.InsufficientStockException;
+import com.ciprian.store_management_tool.exception.InvalidProductQueryException;
+import com.ciprian.store_management_tool.exception.InvalidSnapshotException;
+import com.ciprian.store_management_tool.exception.InvalidStockMovementException;
+import com.ciprian.store_management_tool.exception.InvalidStoreStockException;
+import com.ciprian.store_management_tool.exception.ProductNotFoundException;
+import com.ciprian.store_management_tool.exception.ProductVersionMismatchException;
+import com.ciprian.store_management_tool.exception.ServiceBusyException;
 import com.ciprian.store_management_tool.exception.StoreExceptionType;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.sql.SQLTransientConnectionException;
 import java.time.LocalDateTime;
 
+@Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -27,6 +43,86 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(ProductNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleProductNotFoundException(ProductNotFoundException ex) {
+        return ResponseEntity.status(ex.getHttpStatus())
+                .body(new ErrorResponse(
+                        ex.getMessage(),
+                        ex.getExceptionType().name(),
+                        ex.getTimestamp()
+                ));
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStockException(InsufficientStockException ex) {
+        return ResponseEntity.status(ex.getHttpStatus())
+                .body(new ErrorResponse(
+                        ex.getMessage(),
+                        ex.getExceptionType().name(),
+                        ex.getTimestamp()
+                ));
+    }
+
+    @ExceptionHandler(InvalidStockMovementException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidStockMovementException(InvalidStockMovementException ex) {
+        return ResponseEntity.status(ex.getHttpStatus())
+                .body(new ErrorResponse(
+                        ex.getMessage(),
+                        ex.getExceptionType().name(),
+                        ex.getTimestamp()
+                ));
+    }
+
+    @ExceptionHandler(ProductVersionMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleProductVersionMismatchException(ProductVersionMismatchException ex) {
+        return ResponseEntity.status(ex.getHttpStatus())
+                .body(new ErrorResponse(
+                        ex.getMessage(),
+                        ex.getExceptionType().name(),
+                        ex.getTimestamp()
+                ));
+    }
+
+    @ExceptionHandler(ChangesTokenException.class)
+    public ResponseEntity<ErrorResponse> handleChangesTokenException(ChangesTokenException ex) {
+        return ResponseEntity.status(ex.getHttpStatus())
+                .body(new ErrorResponse(
+                        ex.getMessage(),
+                        ex.getExceptionType().name(),
+                        ex.getTimestamp()
+                ));
+    }
+
+    @ExceptionHandler(InvalidProductQueryException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidProductQueryException(InvalidProductQueryException ex) {
+        return ResponseEntity.status(ex.getHttpStatus())
+                .body(new ErrorResponse(
+                        ex.getMessage(),
+                        ex.getExceptionType().name(),
+                        ex.getTimestamp()
+                ));
+    }
+
+    @ExceptionHandler(InvalidStoreStockException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidStoreStockException(InvalidStoreStockException ex) {
+        return ResponseEntity.status(ex.getHttpStatus())
+                .body(new ErrorResponse(
+                        ex.getMessage(),
+                        ex.getExceptionType().name(),
+                        ex.getTimestamp()
+                ));
+    }
+
+    @ExceptionHandler(InvalidSnapshotException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidSnapshotException(InvalidSnapshotException ex) {
+        return ResponseEntity.status(ex.getHttpStatus())
+                .body(new ErrorResponse(
+                        ex.getMessage(),
+                        ex.getExceptionType().name(),
+                        ex.getTimestamp()
+                ));
+    }
+
     @ExceptionHandler(AccessDeniedStoreException.class)
     public ResponseEntity<ErrorResponse> handleAccessDeniedStoreException(AccessDeniedStoreException ex) {
         return ResponseEntity.status(ex.getHttpStatus())
@@ -71,6 +167,28 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    /**
+     * Answers a Hikari pool timeout, which under virtual threads is where excess load waits, with 503 and a fixed
+     * message. Hikari reports it as a {@link SQLTransientConnectionException} whose cause is the last failure to
+     * open a connection, if any: then the database itself is unreachable, which a retry a second later does not
+     * fix, so that and every other connection failure is rethrown and answered with 500.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<ErrorResponse> handleConnectionUnavailable(NestedRuntimeException ex) {
+        if (!(ex.getMostSpecificCause() instanceof SQLTransientConnectionException timeout)) {
+            throw ex;
+        }
+        log.warn("Rejected a request, no database connection became available in time: {}", timeout.getMessage());
+        ServiceBusyException storeException = new ServiceBusyException();
+        return ResponseEntity.status(storeException.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(
+                        storeException.getMessage(),
+                        storeException.getExceptionType().name(),
+                        storeException.getTimestamp()
+                ));
+    }
+
     @Data
     @AllArgsConstructor
     public static class ErrorResponse {
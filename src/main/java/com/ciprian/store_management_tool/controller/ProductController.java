@@ -1,10 +1,34 @@
 package com.ciprian.store_management_tool.controller;
 
+import com.ciprian.store_management_tool.dto.ProductChanges;
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductImportResult;
+import com.ciprian.store_management_tool.dto.ProductImportSummary;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.dto.StockMovementRequest;
 import com.ciprian.store_management_tool.dto.UpdatePriceRequest;
 import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.service.CatalogVersion;
+import com.ciprian.store_management_tool.service.ProductChangesService;
+import com.ciprian.store_management_tool.service.ProductImportService;
 import com.ciprian.store_management_tool.service.ProductService;
+import com.ciprian.store_management_tool.service.StockAccumulator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,34 +36,138 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Slf4j
 @RestController
 @RequestMapping("/products")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ProductController {
 
     private final ProductService service;
 
+    private final ProductImportService importService;
+
+    private final ProductChangesService changesService;
+
+    private final ObjectProvider<StockAccumulator> stockAccumulator;
+
+    private final CatalogVersion catalogVersion;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${products.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${products.page.max-size:1000}")
+    private int maxPageSize;
+
     @PostMapping
     public ResponseEntity<Product> create(@RequestBody Product product) {
         return ResponseEntity.ok(service.save(product));
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportSummary> createBatch(@RequestBody List<Product> products) {
+        return ResponseEntity.ok(importService.importAll(products));
+    }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ProductHeaders.TEXT_CSV_VALUE})
+    public void createBatchStream(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                  InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        JsonGenerator generator = ndjsonGenerator(response.getOutputStream());
+        Consumer<ProductImportResult> sink = ndjsonLines(generator, ProductImportResult.class);
+
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            importService.importNdjson(body, sink);
+        } else {
+            importService.importCsv(body, sink);
+        }
+        generator.flush();
+    }
+
+    /**
+     * The product with its version as ETag. A matching {@code If-None-Match} is answered with 304 by Spring MVC,
+     * without writing the body.
+     */
     @GetMapping("/{barcode}")
-    public ResponseEntity<Product> get(@PathVariable String barcode) {
+    public ResponseEntity<ProductView> get(@PathVariable String barcode) {
         return service.findById(barcode)
-                .map(ResponseEntity::ok)
+                .map(product -> ProductHeaders.okWithETag(product.version())
+                        .cacheControl(ProductHeaders.REVALIDATE)
+                        .body(product))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * One page of products, filtered by the optional {@link ProductFilter} query parameters and ordered by
+     * {@code sort} ({@code field} or {@code field,desc}), by barcode if absent. Pages carry the
+     * {@link CatalogVersion} as ETag, and a matching {@code If-None-Match} is answered with 304 without a query.
+     */
     @GetMapping
-    public List<Product> getAll() {
-        return service.findAll();
+    public ResponseEntity<List<ProductView>> getAll(@RequestParam(required = false) String after,
+                                                    @RequestParam(required = false) Integer size,
+                                                    @RequestParam(required = false) String sort,
+                                                    ProductFilter filter,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                    String ifNoneMatch) {
+        int pageSize = pageSize(size);
+        ProductSort productSort = ProductSort.parse(sort);
+
+        // read before the query, a change committed meanwhile then only costs the client one more full page
+        String catalogETag = catalogVersion.eTag();
+        if (ProductHeaders.matches(ifNoneMatch, catalogETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(catalogETag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(ProductHeaders.REVALIDATE)
+                    .build();
+        }
+        List<ProductView> page = service.findPage(filter, productSort, after, pageSize);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(catalogETag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(ProductHeaders.REVALIDATE);
+        if (page.size() == pageSize) {
+            response.header(ProductHeaders.NEXT_CURSOR_HEADER, productSort.cursor(page.getLast()));
+        }
+        return response.body(page);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(name = ProductFields.PARAMETER, required = false)
+                                                           String fields) {
+        FilterProvider filters = ProductFields.filters(fields);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = ndjsonGenerator(outputStream);
+            ObjectWriter writer = objectMapper.writerFor(ProductView.class);
+            service.streamAll(ndjsonLines(generator, filters != null ? writer.with(filters) : writer));
+            generator.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> getChanges(@RequestParam(required = false) String since,
+                                                     @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(changesService.changesSince(since, pageSize(size)));
     }
 
     @DeleteMapping("/{barcode}")
@@ -49,10 +177,66 @@ public class ProductController {
     }
 
     @PatchMapping("/{barcode}/price")
-    public ResponseEntity<Product> updatePrice(@PathVariable String barcode, @RequestBody UpdatePriceRequest request) {
-        return service.updatePrice(barcode, request.price())
-                .map(ResponseEntity::ok)
+    public ResponseEntity<Product> updatePrice(@PathVariable String barcode, @RequestBody UpdatePriceRequest request,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.updatePrice(barcode, request.price(), ProductHeaders.parseVersion(barcode, ifMatch))
+                .map(ProductController::withETag)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Adds the delta to the stock. With {@code deferred=true} and the stock accumulator enabled, the movement is
+     * only queued and answered with 202; it is applied with the next flush and not checked against the stock.
+     */
+    @PostMapping("/{barcode}/stock")
+    public ResponseEntity<Product> adjustStock(@PathVariable String barcode, @RequestBody StockMovementRequest request,
+                                               @RequestParam(defaultValue = "false") boolean deferred) {
+        StockAccumulator accumulator = deferred ? stockAccumulator.getIfAvailable() : null;
+        if (accumulator != null) {
+            accumulator.add(barcode, request.delta());
+            return ResponseEntity.accepted().build();
+        }
+        return service.adjustStock(barcode, request.delta())
+                .map(ProductController::withETag)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/stock")
+    public ResponseEntity<List<Product>> adjustStockBatch(@RequestBody List<StockMovement> movements) {
+        return ResponseEntity.ok(service.adjustStock(movements));
+    }
+
+    private int pageSize(Integer size) {
+        return size == null || size < 1 ? defaultPageSize : Math.min(size, maxPageSize);
+    }
+
+    private static ResponseEntity<Product> withETag(Product product) {
+        return ProductHeaders.okWithETag(product.getVersion()).body(product);
+    }
+
+    private JsonGenerator ndjsonGenerator(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    /**
+     * Writes each value as one JSON line. Flushing is left to the generator buffer instead of once per value.
+     */
+    private <T> Consumer<T> ndjsonLines(JsonGenerator generator, Class<T> type) {
+        return ndjsonLines(generator, objectMapper.writerFor(type));
+    }
+
+    private <T> Consumer<T> ndjsonLines(JsonGenerator generator, ObjectWriter typedWriter) {
+        ObjectWriter writer = typedWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return value -> {
+            try {
+                writer.writeValue(generator, value);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
 }
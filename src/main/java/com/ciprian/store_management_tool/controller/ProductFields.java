@@ -0,0 +1,42 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.exception.InvalidProductQueryException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldsets: {@code ?fields=barcode,price} limits every {@link ProductView} in the response to those fields.
+ */
+final class ProductFields {
+
+    static final String PARAMETER = "fields";
+
+    private ProductFields() {
+    }
+
+    /**
+     * @return null if no fieldset was requested
+     */
+    static FilterProvider filters(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        for (String field : requested) {
+            if (!ProductView.FIELDS.contains(field)) {
+                throw new InvalidProductQueryException("unknown field " + field);
+            }
+        }
+        return new SimpleFilterProvider()
+                .addFilter(ProductView.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(requested));
+    }
+}
@@ -0,0 +1,31 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Applies the {@code fields} query parameter to the JSON responses of {@link ProductController}.
+ */
+@RestControllerAdvice(assignableTypes = ProductController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductFieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        String fields = ((ServletServerHttpRequest) request).getServletRequest().getParameter(ProductFields.PARAMETER);
+        FilterProvider filters = ProductFields.filters(fields);
+        if (filters != null) {
+            bodyContainer.setFilters(filters);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.ciprian.store_management_tool.exception.ProductVersionMismatchException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Conditional request headers shared by the servlet and the reactive product controllers.
+ * <p>
+ * ETags are weak: the same version is sent for the JSON, CBOR and gzipped forms of a response, which are equal in
+ * meaning but not byte for byte. Tomcat also refuses to compress a response with a strong ETag.
+ */
+final class ProductHeaders {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    // clients may keep reads but must revalidate them with If-None-Match
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ProductHeaders() {
+    }
+
+    static ResponseEntity.BodyBuilder okWithETag(Long version) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (version != null) {
+            response.eTag("W/\"" + version + "\"").varyBy(HttpHeaders.ACCEPT);
+        }
+        return response;
+    }
+
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.create(eTag);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(candidate -> candidate.isWildcard() || candidate.compare(current, false));
+    }
+
+    /**
+     * Reads the product version out of an If-Match header. A missing header or {@code *} means any version.
+     */
+    static Long parseVersion(String barcode, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        version = version.replace("\"", "");
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new ProductVersionMismatchException(barcode, ifMatch);
+        }
+    }
+}
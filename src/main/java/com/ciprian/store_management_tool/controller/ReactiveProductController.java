@@ -0,0 +1,250 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.ciprian.store_management_tool.dto.ProductChanges;
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductImportResult;
+import com.ciprian.store_management_tool.dto.ProductImportSummary;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.dto.StockMovementRequest;
+import com.ciprian.store_management_tool.dto.UpdatePriceRequest;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.repository.ReactiveProductRepository;
+import com.ciprian.store_management_tool.service.CatalogVersion;
+import com.ciprian.store_management_tool.service.ProductChangesService;
+import com.ciprian.store_management_tool.service.ProductImportService;
+import com.ciprian.store_management_tool.service.ProductService;
+import com.ciprian.store_management_tool.service.StockAccumulator;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * The {@code /products} API on WebFlux, active with the {@code reactive} profile. Reads go to Postgres over R2DBC
+ * without holding a thread. Writes keep going through {@link ProductService} and the other blocking services,
+ * so the outbox, the cache invalidation and the metrics stay exactly those of the servlet stack; they run on the
+ * bounded elastic scheduler, away from the event loop.
+ */
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductController {
+
+    private final ReactiveProductRepository repository;
+
+    private final ProductService service;
+
+    private final ProductImportService importService;
+
+    private final ProductChangesService changesService;
+
+    private final ObjectProvider<StockAccumulator> stockAccumulator;
+
+    private final CatalogVersion catalogVersion;
+
+    @Value("${products.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${products.page.max-size:1000}")
+    private int maxPageSize;
+
+    @PostMapping
+    public Mono<ResponseEntity<Product>> create(@RequestBody Product product) {
+        return blocking(() -> ResponseEntity.ok(service.save(product)));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ProductImportSummary>> createBatch(@RequestBody List<Product> products) {
+        return blocking(() -> ResponseEntity.ok(importService.importAll(products)));
+    }
+
+    /**
+     * Imports the body line by line while it arrives. The import reads it as an {@link InputStream} on a worker
+     * thread and each result is sent as soon as it is known.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ProductHeaders.TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductImportResult> createBatchStream(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                       @RequestBody Flux<DataBuffer> body) {
+        return Flux.<ProductImportResult>create(sink -> {
+                    try (InputStream input = DataBufferUtils.subscriberInputStream(body, 16)) {
+                        if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                            importService.importNdjson(input, sink::next);
+                        } else {
+                            importService.importCsv(input, sink::next);
+                        }
+                        sink.complete();
+                    } catch (IOException | RuntimeException e) {
+                        sink.error(e);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Catalog snapshots are only served by the servlet stack. Without this mapping a GET would be read as the
+     * barcode {@code snapshot}.
+     */
+    @RequestMapping(value = "/snapshot", method = {RequestMethod.GET, RequestMethod.POST})
+    public Mono<ResponseEntity<Void>> snapshot() {
+        return Mono.just(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{barcode}")
+    public Mono<ResponseEntity<Object>> get(@PathVariable String barcode,
+                                            @RequestParam(name = ProductFields.PARAMETER, required = false)
+                                            String fields) {
+        FilterProvider filters = ProductFields.filters(fields);
+        return repository.findViewByBarcode(barcode)
+                .map(product -> ProductHeaders.okWithETag(product.version())
+                        .cacheControl(ProductHeaders.REVALIDATE)
+                        .body(withFilters(product, filters)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Same contract as {@link ProductController#getAll}: filtered, sorted pages with a cursor, and 304 without a
+     * query while the {@link CatalogVersion} has not moved.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getAll(@RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer size,
+                                               @RequestParam(required = false) String sort,
+                                               @RequestParam(name = ProductFields.PARAMETER, required = false)
+                                               String fields,
+                                               ProductFilter filter,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                               String ifNoneMatch) {
+        int pageSize = pageSize(size);
+        ProductSort productSort = ProductSort.parse(sort);
+        FilterProvider filters = ProductFields.filters(fields);
+
+        String catalogETag = catalogVersion.eTag();
+        if (ProductHeaders.matches(ifNoneMatch, catalogETag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(catalogETag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(ProductHeaders.REVALIDATE)
+                    .build());
+        }
+        return repository.findPage(filter, productSort, productSort.position(after), pageSize)
+                .collectList()
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .eTag(catalogETag)
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .cacheControl(ProductHeaders.REVALIDATE);
+                    if (page.size() == pageSize) {
+                        response.header(ProductHeaders.NEXT_CURSOR_HEADER, productSort.cursor(page.getLast()));
+                    }
+                    return response.body(withFilters(page, filters));
+                });
+    }
+
+    /**
+     * The whole catalog as NDJSON. Rows are only fetched as fast as the client reads them.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Object> streamAll(@RequestParam(name = ProductFields.PARAMETER, required = false) String fields) {
+        FilterProvider filters = ProductFields.filters(fields);
+        return repository.streamAll().map(product -> withFilters(product, filters));
+    }
+
+    @GetMapping("/changes")
+    public Mono<ResponseEntity<ProductChanges>> getChanges(@RequestParam(required = false) String since,
+                                                           @RequestParam(required = false) Integer size) {
+        return blocking(() -> ResponseEntity.ok(changesService.changesSince(since, pageSize(size))));
+    }
+
+    @DeleteMapping("/{barcode}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String barcode) {
+        return blocking(() -> {
+            service.deleteById(barcode);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    @PatchMapping("/{barcode}/price")
+    public Mono<ResponseEntity<Product>> updatePrice(@PathVariable String barcode,
+                                                     @RequestBody UpdatePriceRequest request,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                     String ifMatch) {
+        Long expectedVersion = ProductHeaders.parseVersion(barcode, ifMatch);
+        return blocking(() -> service.updatePrice(barcode, request.price(), expectedVersion)
+                .map(ReactiveProductController::withETag)
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @PostMapping("/{barcode}/stock")
+    public Mono<ResponseEntity<Product>> adjustStock(@PathVariable String barcode,
+                                                     @RequestBody StockMovementRequest request,
+                                                     @RequestParam(defaultValue = "false") boolean deferred) {
+        StockAccumulator accumulator = deferred ? stockAccumulator.getIfAvailable() : null;
+        if (accumulator != null) {
+            accumulator.add(barcode, request.delta());
+            return Mono.just(ResponseEntity.accepted().build());
+        }
+        return blocking(() -> service.adjustStock(barcode, request.delta())
+                .map(ReactiveProductController::withETag)
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @PostMapping("/stock")
+    public Mono<ResponseEntity<List<Product>>> adjustStockBatch(@RequestBody List<StockMovement> movements) {
+        return blocking(() -> ResponseEntity.ok(service.adjustStock(movements)));
+    }
+
+    private int pageSize(Integer size) {
+        return size == null || size < 1 ? defaultPageSize : Math.min(size, maxPageSize);
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static ResponseEntity<Product> withETag(Product product) {
+        return ProductHeaders.okWithETag(product.getVersion()).body(product);
+    }
+
+    /**
+     * The Jackson encoders of WebFlux apply the filters of a {@link MappingJacksonValue}; there is no response body
+     * advice to do it for every body as on the servlet stack.
+     */
+    private static Object withFilters(Object body, FilterProvider filters) {
+        if (filters == null) {
+            return body;
+        }
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filters);
+        return value;
+    }
+}
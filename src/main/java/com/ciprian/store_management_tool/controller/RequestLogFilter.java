@@ -0,0 +1,146 @@
+package com.ciprian.store_management_tool.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access log that keeps the cost off the request thread. A request is logged when it is sampled, at
+ * {@code request-log.sample-rate}, or when it took at least {@code request-log.slow-threshold-ms}. The request
+ * thread only queues the entry and a background thread writes it with the method, path, status and duration as
+ * key-value pairs, which structured logging ({@code logging.structured.format.console}) turns into fields.
+ * When the queue is full entries are dropped and counted rather than slowing requests down.
+ */
+@Slf4j(topic = "request-log")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "request-log.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RequestLogFilter extends OncePerRequestFilter {
+
+    record Entry(String method, String path, int status, long durationMs, boolean slow) {
+    }
+
+    private final double sampleRate;
+    private final long slowThresholdMs;
+    private final BlockingQueue<Entry> queue;
+    private final Counter dropped;
+
+    private Thread writer;
+
+    public RequestLogFilter(MeterRegistry meterRegistry,
+                            @Value("${request-log.sample-rate:0.01}") double sampleRate,
+                            @Value("${request-log.slow-threshold-ms:500}") long slowThresholdMs,
+                            @Value("${request-log.queue-size:10000}") int queueSize) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdMs = slowThresholdMs;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.dropped = Counter.builder("request.log.dropped")
+                .description("Request log entries dropped because the log writer fell behind")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer = Thread.ofPlatform().name("request-log").daemon().start(this::writeEntries);
+    }
+
+    @PreDestroy
+    void stop() {
+        writer.interrupt();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // streamed responses are only done once the async request completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, start);
+            }
+        }
+    }
+
+    List<Entry> pending() {
+        return List.copyOf(queue);
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long start) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        boolean slow = durationMs >= slowThresholdMs;
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        Entry entry = new Entry(request.getMethod(), request.getRequestURI(), response.getStatus(), durationMs, slow);
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private void writeEntries() {
+        try {
+            while (true) {
+                write(queue.take());
+            }
+        } catch (InterruptedException e) {
+            List<Entry> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            remaining.forEach(this::write);
+        }
+    }
+
+    private void write(Entry entry) {
+        log.atInfo()
+                .addKeyValue("method", entry.method())
+                .addKeyValue("path", entry.path())
+                .addKeyValue("status", entry.status())
+                .addKeyValue("durationMs", entry.durationMs())
+                .addKeyValue("slow", entry.slow())
+                .log("{} {} {} in {} ms", entry.method(), entry.path(), entry.status(), entry.durationMs());
+    }
+}
@@ -0,0 +1,64 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.ciprian.store_management_tool.dto.StockMovementRequest;
+import com.ciprian.store_management_tool.dto.StoreStock;
+import com.ciprian.store_management_tool.dto.StoreStockQuery;
+import com.ciprian.store_management_tool.dto.StoreStockRequest;
+import com.ciprian.store_management_tool.service.StoreInventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StoreInventoryController {
+
+    private final StoreInventoryService service;
+
+    /**
+     * Availability of the product across all stores, with {@code inStock=true} only in the stores that have it.
+     */
+    @GetMapping("/{barcode}/stores")
+    public ResponseEntity<List<StoreStock>> getStores(@PathVariable String barcode,
+                                                      @RequestParam(defaultValue = "false") boolean inStock) {
+        return service.findStores(barcode, inStock)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stock of a batch of products in a batch of stores. A POST so the barcode lists are not bound by the URL length.
+     */
+    @PostMapping("/availability")
+    public ResponseEntity<List<StoreStock>> getAvailability(@RequestBody StoreStockQuery query) {
+        return ResponseEntity.ok(service.findStock(query));
+    }
+
+    @PutMapping("/{barcode}/stores/{storeId}")
+    public ResponseEntity<StoreStock> putStoreStock(@PathVariable String barcode, @PathVariable String storeId,
+                                                    @RequestBody StoreStockRequest request) {
+        return service.save(barcode, storeId, request.quantity(), request.price())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{barcode}/stores/{storeId}/stock")
+    public ResponseEntity<StoreStock> adjustStoreStock(@PathVariable String barcode, @PathVariable String storeId,
+                                                       @RequestBody StockMovementRequest request) {
+        return service.adjustStock(barcode, storeId, request.delta())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,8 @@
+package com.ciprian.store_management_tool.dto;
+
+/**
+ * Outcome of a snapshot import: the products in the file, those created and those skipped because their barcode
+ * already existed.
+ */
+public record CatalogSnapshotSummary(long products, long created, long existing) {
+}
@@ -0,0 +1,27 @@
+package com.ciprian.store_management_tool.dto;
+
+import java.util.Comparator;
+
+/**
+ * Place of a change in the feed: the id of the transaction that wrote it, then the barcode.
+ */
+public record ChangePosition(long transactionId, String barcode) implements Comparable<ChangePosition> {
+
+    public static final ChangePosition START = new ChangePosition(0, "");
+
+    private static final Comparator<ChangePosition> ORDER = Comparator
+            .comparingLong(ChangePosition::transactionId)
+            .thenComparing(ChangePosition::barcode);
+
+    /**
+     * The position right before every change of the transactions from {@code transactionId} on.
+     */
+    public static ChangePosition before(long transactionId) {
+        return new ChangePosition(transactionId, "");
+    }
+
+    @Override
+    public int compareTo(ChangePosition other) {
+        return ORDER.compare(this, other);
+    }
+}
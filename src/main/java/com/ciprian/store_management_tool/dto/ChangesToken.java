@@ -0,0 +1,62 @@
+package com.ciprian.store_management_tool.dto;
+
+import com.ciprian.store_management_tool.exception.ChangesTokenException;
+import com.ciprian.store_management_tool.exception.StoreExceptionType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * What a client sends back to the change feed: the last position it has seen and when the token was issued, which
+ * tells whether tombstones it still needs may have been pruned. Clients only ever see the encoded form, so the format
+ * can change without breaking them.
+ */
+public record ChangesToken(ChangePosition position, LocalDateTime issuedAt) {
+
+    public static final ChangesToken START = new ChangesToken(ChangePosition.START, LocalDateTime.MAX);
+
+    private static final String VERSION = "2";
+
+    /**
+     * @throws ChangesTokenException invalid if the token cannot be read, expired if it was issued by the earlier
+     *                               timestamp based feed, whose position cannot be carried over
+     */
+    public static ChangesToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new ChangesTokenException(StoreExceptionType.CHANGES_TOKEN_INVALID, token);
+        }
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new ChangesTokenException(isTimestampToken(parts)
+                    ? StoreExceptionType.CHANGES_TOKEN_EXPIRED
+                    : StoreExceptionType.CHANGES_TOKEN_INVALID, token);
+        }
+        try {
+            return new ChangesToken(new ChangePosition(Long.parseLong(parts[1]), parts[3]), LocalDateTime.parse(parts[2]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new ChangesTokenException(StoreExceptionType.CHANGES_TOKEN_INVALID, token);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (VERSION + "|" + position.transactionId() + "|" + issuedAt + "|" + position.barcode())
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isTimestampToken(String[] parts) {
+        try {
+            LocalDateTime.parse(parts[0]);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
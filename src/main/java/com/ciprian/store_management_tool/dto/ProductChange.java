@@ -0,0 +1,16 @@
+package com.ciprian.store_management_tool.dto;
+
+/**
+ * A row of the change feed: the current state of a created or changed product, or a deletion when
+ * {@code product} is null.
+ */
+public record ProductChange(ChangePosition position, ProductView product) {
+
+    public String barcode() {
+        return position.barcode();
+    }
+
+    public boolean isDeletion() {
+        return product == null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ciprian.store_management_tool.dto;
+
+import java.util.List;
+
+/**
+ * One page of the change feed. {@code updated} holds the current state of products created or changed since the
+ * token, {@code deleted} the barcodes removed since then. A barcode appears in at most one of the two lists.
+ *
+ * @param nextToken token to send on the next call
+ * @param hasMore   true if more changes are already available, so the client should call again right away
+ */
+public record ProductChanges(List<ProductView> updated, List<String> deleted, String nextToken, boolean hasMore) {
+}
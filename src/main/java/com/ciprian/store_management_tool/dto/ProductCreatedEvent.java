@@ -1,7 +1,19 @@
 package com.ciprian.store_management_tool.dto;
 
+import com.ciprian.store_management_tool.model.Product;
+
 import java.math.BigDecimal;
 
-public record ProductCreatedEvent(String barcode, String name, BigDecimal price) {
+public record ProductCreatedEvent(String barcode, String name, BigDecimal price, int quantity, long sequence)
+        implements ProductEvent {
+
+    public static ProductCreatedEvent of(Product product) {
+        return new ProductCreatedEvent(product.getBarcode(), product.getName(), product.getPrice(),
+                product.getQuantity(), 0);
+    }
 
+    @Override
+    public ProductCreatedEvent withSequence(long sequence) {
+        return new ProductCreatedEvent(barcode, name, price, quantity, sequence);
+    }
 }
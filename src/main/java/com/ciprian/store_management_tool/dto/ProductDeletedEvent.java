@@ -0,0 +1,13 @@
+package com.ciprian.store_management_tool.dto;
+
+public record ProductDeletedEvent(String barcode, long sequence) implements ProductEvent {
+
+    public static ProductDeletedEvent of(String barcode) {
+        return new ProductDeletedEvent(barcode, 0);
+    }
+
+    @Override
+    public ProductDeletedEvent withSequence(long sequence) {
+        return new ProductDeletedEvent(barcode, sequence);
+    }
+}
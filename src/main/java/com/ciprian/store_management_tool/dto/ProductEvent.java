@@ -0,0 +1,17 @@
+package com.ciprian.store_management_tool.dto;
+
+/**
+ * A change to a product, published on the {@code product-events} topic keyed by barcode.
+ * <p>
+ * The sequence number is assigned when the event is relayed from the outbox and grows with every change of the
+ * same product, so a consumer can ignore any event whose sequence is not above the last one it applied.
+ */
+public sealed interface ProductEvent
+        permits ProductCreatedEvent, ProductPriceChangedEvent, ProductQuantityChangedEvent, ProductDeletedEvent {
+
+    String barcode();
+
+    long sequence();
+
+    ProductEvent withSequence(long sequence);
+}
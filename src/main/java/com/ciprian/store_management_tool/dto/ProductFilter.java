@@ -0,0 +1,36 @@
+package com.ciprian.store_management_tool.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters of {@code GET /products}, bound from the query parameters. Unset filters match every product.
+ *
+ * @param name          case-insensitive substring of the name
+ * @param namePrefix    case-insensitive prefix of the name
+ * @param minPrice      inclusive lower bound of the price
+ * @param maxPrice      inclusive upper bound of the price
+ * @param quantityBelow only products with fewer items in stock, for low-stock reports
+ * @param createdAfter  only products created after this time
+ */
+public record ProductFilter(String name,
+                            String namePrefix,
+                            BigDecimal minPrice,
+                            BigDecimal maxPrice,
+                            Integer quantityBelow,
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter) {
+
+    public static final ProductFilter NONE = new ProductFilter(null, null, null, null, null, null);
+
+    public ProductFilter {
+        name = StringUtils.hasText(name) ? name : null;
+        namePrefix = StringUtils.hasText(namePrefix) ? namePrefix : null;
+    }
+
+    public boolean isEmpty() {
+        return equals(NONE);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ciprian.store_management_tool.dto;
+
+public record ProductImportResult(int row, String barcode, Status status, String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    public static ProductImportResult created(int row, String barcode) {
+        return new ProductImportResult(row, barcode, Status.CREATED, null);
+    }
+
+    public static ProductImportResult duplicate(int row, String barcode) {
+        return new ProductImportResult(row, barcode, Status.DUPLICATE,
+                String.format("Product with barcode %s already exists", barcode));
+    }
+
+    public static ProductImportResult invalid(int row, String barcode, String message) {
+        return new ProductImportResult(row, barcode, Status.INVALID, message);
+    }
+
+    public static ProductImportResult failed(int row, String barcode) {
+        return new ProductImportResult(row, barcode, Status.FAILED,
+                "The batch of this row could not be saved and was rolled back");
+    }
+
+    public boolean isSuccess() {
+        return status == Status.CREATED;
+    }
+}
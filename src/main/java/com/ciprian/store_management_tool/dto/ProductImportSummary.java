@@ -0,0 +1,11 @@
+package com.ciprian.store_management_tool.dto;
+
+import java.util.List;
+
+public record ProductImportSummary(int created, int failed, List<ProductImportResult> results) {
+
+    public static ProductImportSummary of(List<ProductImportResult> results) {
+        int created = (int) results.stream().filter(ProductImportResult::isSuccess).count();
+        return new ProductImportSummary(created, results.size() - created, results);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ciprian.store_management_tool.dto;
+
+import com.ciprian.store_management_tool.model.Product;
+
+import java.math.BigDecimal;
+
+public record ProductPriceChangedEvent(String barcode, BigDecimal price, Long version, long sequence)
+        implements ProductEvent {
+
+    public static ProductPriceChangedEvent of(Product product) {
+        return new ProductPriceChangedEvent(product.getBarcode(), product.getPrice(), product.getVersion(), 0);
+    }
+
+    @Override
+    public ProductPriceChangedEvent withSequence(long sequence) {
+        return new ProductPriceChangedEvent(barcode, price, version, sequence);
+    }
+}
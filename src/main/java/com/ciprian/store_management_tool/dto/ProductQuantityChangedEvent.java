@@ -0,0 +1,13 @@
+package com.ciprian.store_management_tool.dto;
+
+public record ProductQuantityChangedEvent(String barcode, int quantity, long sequence) implements ProductEvent {
+
+    public static ProductQuantityChangedEvent of(String barcode, int quantity) {
+        return new ProductQuantityChangedEvent(barcode, quantity, 0);
+    }
+
+    @Override
+    public ProductQuantityChangedEvent withSequence(long sequence) {
+        return new ProductQuantityChangedEvent(barcode, quantity, sequence);
+    }
+}
@@ -0,0 +1,110 @@
+package com.ciprian.store_management_tool.dto;
+
+import com.ciprian.store_management_tool.exception.InvalidProductQueryException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Order of a product page, always followed by barcode so that every product has a unique position to resume from.
+ * Pages ordered by barcode keep using the plain barcode as cursor; any other order uses an encoded
+ * {@code value|barcode} cursor that clients pass back without looking into it. A product without a value, which only
+ * happens for {@code createdAt}, is encoded as its barcode alone and sorts after every value.
+ */
+public record ProductSort(Field field, boolean descending) {
+
+    public static final ProductSort DEFAULT = new ProductSort(Field.BARCODE, false);
+
+    /**
+     * Reads {@code field} or {@code field,asc|desc}, with the field named as in the JSON representation.
+     */
+    public static ProductSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return DEFAULT;
+        }
+        String[] parts = sort.split(",", 2);
+        Field field = Arrays.stream(Field.values())
+                .filter(candidate -> candidate.property.equals(parts[0].trim()))
+                .findFirst()
+                .orElseThrow(() -> new InvalidProductQueryException("unknown sort field " + parts[0]));
+        if (parts.length == 1) {
+            return new ProductSort(field, false);
+        }
+        return switch (parts[1].trim().toLowerCase(Locale.ROOT)) {
+            case "asc" -> new ProductSort(field, false);
+            case "desc" -> new ProductSort(field, true);
+            default -> throw new InvalidProductQueryException("unknown sort direction " + parts[1]);
+        };
+    }
+
+    public String cursor(ProductView last) {
+        if (field == Field.BARCODE) {
+            return last.barcode();
+        }
+        Object value = field.getter.apply(last);
+        String position = value != null ? value + "|" + last.barcode() : last.barcode();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Position position(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        if (field == Field.BARCODE) {
+            return new Position(cursor, cursor);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0 && field.nullable) {
+                return new Position(null, decoded);
+            }
+            return new Position(field.parser.apply(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidProductQueryException("invalid cursor " + cursor + " for sort " + field.property);
+        }
+    }
+
+    /**
+     * Where the previous page ended: the sort value, null for a product without one, and barcode of its last product.
+     */
+    public record Position(Object value, String barcode) {
+    }
+
+    public enum Field {
+        BARCODE("barcode", "barcode", false, ProductView::barcode, value -> value),
+        NAME("name", "name", false, ProductView::name, value -> value),
+        PRICE("price", "price", false, ProductView::price, BigDecimal::new),
+        QUANTITY("quantity", "quantity", false, ProductView::quantity, Integer::valueOf),
+        CREATED_AT("createdAt", "created_at", true, ProductView::createdAt, LocalDateTime::parse);
+
+        private final String property;
+        private final String column;
+        private final boolean nullable;
+        private final Function<ProductView, Object> getter;
+        private final Function<String, Object> parser;
+
+        Field(String property, String column, boolean nullable, Function<ProductView, Object> getter,
+              Function<String, Object> parser) {
+            this.property = property;
+            this.column = column;
+            this.nullable = nullable;
+            this.getter = getter;
+            this.parser = parser;
+        }
+
+        public String column() {
+            return column;
+        }
+
+        public boolean nullable() {
+            return nullable;
+        }
+    }
+}
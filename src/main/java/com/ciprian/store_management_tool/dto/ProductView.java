@@ -0,0 +1,33 @@
+package com.ciprian.store_management_tool.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only representation of a product returned by the read endpoints. It is fetched with constructor projections
+ * or plain JDBC, so reads never load managed entities into the persistence context. The JSON matches the entity's.
+ * <p>
+ * Serialized through the {@value #FIELDS_FILTER} filter, which writes every field unless the request asked for a
+ * sparse fieldset.
+ */
+@JsonFilter(ProductView.FIELDS_FILTER)
+public record ProductView(String barcode,
+                          String name,
+                          BigDecimal price,
+                          int quantity,
+                          LocalDateTime createdAt,
+                          LocalDateTime updatedAt,
+                          Long version) {
+
+    public static final String FIELDS_FILTER = "productFields";
+
+    public static final Set<String> FIELDS = Arrays.stream(ProductView.class.getRecordComponents())
+            .map(RecordComponent::getName)
+            .collect(Collectors.toUnmodifiableSet());
+}
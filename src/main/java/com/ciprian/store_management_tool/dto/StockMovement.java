@@ -0,0 +1,13 @@
+package com.ciprian.store_management_tool.dto;
+
+/**
+ * Change of stock for one product, negative for sales and positive for deliveries or returns.
+ */
+public record StockMovement(String barcode, int delta) {
+
+    /**
+     * Largest change of one movement, or of the merged movements of a product in one basket. It keeps
+     * {@code quantity + delta} well inside the INT range of the stock columns.
+     */
+    public static final int MAX_DELTA = 1_000_000;
+}
@@ -0,0 +1,4 @@
+package com.ciprian.store_management_tool.dto;
+
+public record StockMovementRequest(int delta) {
+}
@@ -0,0 +1,12 @@
+package com.ciprian.store_management_tool.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Stock of one product in one store.
+ *
+ * @param price the price in that store: its local price if it has one, the product price otherwise
+ */
+public record StoreStock(String barcode, String storeId, int quantity, BigDecimal price, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,12 @@
+package com.ciprian.store_management_tool.dto;
+
+import java.util.List;
+
+/**
+ * Stock of several products in several stores, answered with one query.
+ *
+ * @param storeIds stores to include, all stores when null or empty
+ * @param inStock  only return the stores that have the product in stock
+ */
+public record StoreStockQuery(List<String> barcodes, List<String> storeIds, boolean inStock) {
+}
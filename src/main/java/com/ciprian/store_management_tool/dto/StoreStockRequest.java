@@ -0,0 +1,9 @@
+package com.ciprian.store_management_tool.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * @param price local price of the store, or null to sell at the product price
+ */
+public record StoreStockRequest(int quantity, BigDecimal price) {
+}
@@ -20,4 +20,16 @@ public class AuthenticationStoreException extends StoreException {
         this.httpStatus = HttpStatus.UNAUTHORIZED;
     }
 
+    /**
+     * Picks the exception type from the message of a failed bearer token authentication.
+     */
+    public static AuthenticationStoreException fromMessage(String message) {
+        if (message != null && message.contains("expired")) {
+            return new AuthenticationStoreException(StoreExceptionType.TOKEN_EXPIRED);
+        } else if (message != null && message.contains("invalid")) {
+            return new AuthenticationStoreException(StoreExceptionType.TOKEN_INVALID);
+        }
+        return new AuthenticationStoreException(StoreExceptionType.AUTHENTICATION_REQUIRED);
+    }
+
 }
@@ -0,0 +1,18 @@
+package com.ciprian.store_management_tool.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ChangesTokenException extends StoreException {
+    private final HttpStatus httpStatus;
+    private final StoreExceptionType exceptionType;
+
+    public ChangesTokenException(StoreExceptionType exceptionType, String token) {
+        super(exceptionType.getMessage() + ": " + token);
+        this.exceptionType = exceptionType;
+        this.httpStatus = exceptionType == StoreExceptionType.CHANGES_TOKEN_EXPIRED
+                ? HttpStatus.GONE
+                : HttpStatus.BAD_REQUEST;
+    }
+}
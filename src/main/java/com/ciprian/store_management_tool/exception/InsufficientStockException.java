@@ -0,0 +1,16 @@
+package com.ciprian.store_management_tool.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class InsufficientStockException extends StoreException {
+    private final HttpStatus httpStatus;
+    private final StoreExceptionType exceptionType;
+
+    public InsufficientStockException(String barcode, int delta) {
+        super(String.format("Product with barcode %s does not have %d items in stock", barcode, -delta));
+        this.httpStatus = HttpStatus.CONFLICT;
+        this.exceptionType = StoreExceptionType.INSUFFICIENT_STOCK;
+    }
+}
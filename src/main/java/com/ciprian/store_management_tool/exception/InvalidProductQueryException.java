@@ -0,0 +1,16 @@
+package com.ciprian.store_management_tool.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class InvalidProductQueryException extends StoreException {
+    private final HttpStatus httpStatus;
+    private final StoreExceptionType exceptionType;
+
+    public InvalidProductQueryException(String additionalDetails) {
+        super(StoreExceptionType.INVALID_PRODUCT_QUERY.getMessage() + ": " + additionalDetails);
+        this.httpStatus = HttpStatus.BAD_REQUEST;
+        this.exceptionType = StoreExceptionType.INVALID_PRODUCT_QUERY;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ciprian.store_management_tool.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class InvalidSnapshotException extends StoreException {
+    private final HttpStatus httpStatus;
+    private final StoreExceptionType exceptionType;
+
+    public InvalidSnapshotException(String additionalDetails) {
+        super(StoreExceptionType.INVALID_SNAPSHOT.getMessage() + ": " + additionalDetails);
+        this.httpStatus = HttpStatus.BAD_REQUEST;
+        this.exceptionType = StoreExceptionType.INVALID_SNAPSHOT;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ciprian.store_management_tool.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ProductNotFoundException extends StoreException {
+    private final HttpStatus httpStatus;
+    private final StoreExceptionType exceptionType;
+
+    public ProductNotFoundException(String barcode) {
+        super(String.format("Product with barcode %s not found", barcode));
+        this.httpStatus = HttpStatus.NOT_FOUND;
+        this.exceptionType = StoreExceptionType.PRODUCT_NOT_FOUND;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ciprian.store_management_tool.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ProductVersionMismatchException extends StoreException {
+    private final HttpStatus httpStatus;
+    private final StoreExceptionType exceptionType;
+
+    public ProductVersionMismatchException(String barcode, String expectedVersion) {
+        super(String.format("Product with barcode %s is not at version %s", barcode, expectedVersion));
+        this.httpStatus = HttpStatus.PRECONDITION_FAILED;
+        this.exceptionType = StoreExceptionType.PRODUCT_VERSION_MISMATCH;
+    }
+}
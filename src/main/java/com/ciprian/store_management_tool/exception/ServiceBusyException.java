@@ -0,0 +1,16 @@
+package com.ciprian.store_management_tool.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ServiceBusyException extends StoreException {
+    private final HttpStatus httpStatus;
+    private final StoreExceptionType exceptionType;
+
+    public ServiceBusyException() {
+        super(StoreExceptionType.SERVICE_BUSY.getMessage());
+        this.httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+        this.exceptionType = StoreExceptionType.SERVICE_BUSY;
+    }
+}
@@ -8,7 +8,17 @@ public enum StoreExceptionType {
     TOKEN_EXPIRED("Authentication token has expired"),
     TOKEN_INVALID("Authentication token is invalid"),
     ACCESS_DENIED("Access denied to the requested resource, you do not have the correct role"),
-    DUPLICATE_PRODUCT("A product with the same barcode already exists");
+    DUPLICATE_PRODUCT("A product with the same barcode already exists"),
+    PRODUCT_NOT_FOUND("The product does not exist"),
+    INSUFFICIENT_STOCK("There is not enough stock for the requested movement"),
+    INVALID_STOCK_MOVEMENT("The stock movement is not valid"),
+    PRODUCT_VERSION_MISMATCH("The product was modified since the version sent in If-Match"),
+    CHANGES_TOKEN_INVALID("The changes token is not valid"),
+    CHANGES_TOKEN_EXPIRED("The changes token is older than the tombstone retention, a full resync is required"),
+    INVALID_PRODUCT_QUERY("The product filter, sort or cursor is not valid"),
+    INVALID_STORE_STOCK("The store stock is not valid"),
+    INVALID_SNAPSHOT("The catalog snapshot is not valid"),
+    SERVICE_BUSY("No database connection became available in time, retry later");
 
     private final String message;
 
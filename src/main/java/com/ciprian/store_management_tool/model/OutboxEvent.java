@@ -0,0 +1,16 @@
+package com.ciprian.store_management_tool.model;
+
+/**
+ * An event waiting in the {@code product_outbox} table to be sent to Kafka.
+ *
+ * @param id        assigned by the database, null before the event is stored
+ * @param eventKey  Kafka record key, the product barcode
+ * @param eventType simple class name of the event, used to read the payload back
+ * @param payload   the event serialized as JSON
+ */
+public record OutboxEvent(Long id, String eventKey, String eventType, String payload) {
+
+    public static OutboxEvent of(String eventKey, String eventType, String payload) {
+        return new OutboxEvent(null, eventKey, eventType, payload);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    private static final RowMapper<OutboxEvent> OUTBOX_ROW_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"),
+            rs.getString("event_key"),
+            rs.getString("event_type"),
+            rs.getString("payload"));
+
+    /**
+     * Key of the advisory lock held by the instance relaying the outbox.
+     */
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void saveAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO product_outbox (event_key, event_type, payload) VALUES (?, ?, ?)",
+                events, events.size(), (ps, event) -> {
+                    ps.setString(1, event.eventKey());
+                    ps.setString(2, event.eventType());
+                    ps.setString(3, event.payload());
+                });
+    }
+
+    /**
+     * Takes the relay lock for the current transaction, without waiting. Only the instance holding it may relay, so
+     * batches are sent one after another in outbox id order and the events of a product reach Kafka in the order
+     * they were written.
+     *
+     * @return false if another instance is relaying
+     */
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY));
+    }
+
+    /**
+     * Locks the oldest events for the current transaction. Callers must hold the relay lock, see
+     * {@link #tryLockRelay()}.
+     */
+    public List<OutboxEvent> lockNextBatch(int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, event_key, event_type, payload FROM product_outbox ORDER BY id LIMIT ? FOR UPDATE",
+                OUTBOX_ROW_MAPPER, limit);
+    }
+
+    /**
+     * Moves an event the relay cannot send to {@code product_outbox_dead_letters}, in the current transaction.
+     */
+    public void moveToDeadLetters(OutboxEvent event, String reason) {
+        jdbcTemplate.update(
+                "INSERT INTO product_outbox_dead_letters (id, event_key, event_type, payload, created_at, reason) "
+                        + "SELECT id, event_key, event_type, payload, created_at, ? FROM product_outbox WHERE id = ?",
+                reason, event.id());
+        jdbcTemplate.update("DELETE FROM product_outbox WHERE id = ?", event.id());
+    }
+
+    public void deleteAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate("DELETE FROM product_outbox WHERE id = ?",
+                events, events.size(), (ps, event) -> ps.setLong(1, event.id()));
+    }
+}
@@ -1,7 +1,29 @@
 package com.ciprian.store_management_tool.repository;
 
+import com.ciprian.store_management_tool.dto.ProductView;
 import com.ciprian.store_management_tool.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<Product, String> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface ProductRepository extends JpaRepository<Product, String>, ProductRepositoryCustom {
+
+    // constructor projections: read-only rows, nothing is added to the persistence context
+    List<ProductView> findViewsByBarcodeGreaterThanOrderByBarcodeAsc(String barcode, Limit limit);
+
+    Optional<ProductView> findViewByBarcode(String barcode);
+
+    @Query("select p.barcode from Product p where p.barcode in :barcodes")
+    Set<String> findExistingBarcodes(@Param("barcodes") Collection<String> barcodes);
+
+    @Modifying
+    @Query("delete from Product p where p.barcode = :barcode")
+    int deleteByBarcode(@Param("barcode") String barcode);
 }
@@ -0,0 +1,117 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.dto.ChangePosition;
+import com.ciprian.store_management_tool.dto.ProductChange;
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Reads every product in barcode order through a JDBC cursor, or a {@code COPY} when the table is partitioned,
+     * and hands each row to the action without keeping it in memory. Must be called inside a transaction so the
+     * driver can use a cursor.
+     */
+    void streamAll(Consumer<ProductView> action);
+
+    /**
+     * One page of the products matching the filter, in the given order and starting after the position,
+     * which is the last product of the previous page. Filtering, ordering and the limit all run in the database.
+     *
+     * @param after null for the first page
+     */
+    List<ProductView> findPage(ProductFilter filter, ProductSort sort, ProductSort.Position after, int limit);
+
+    /**
+     * Barcodes that split the catalog into {@code parts} barcode ranges of about the same size, in order. Each is
+     * the last barcode of its range. Fewer are returned when the catalog has fewer products than parts.
+     */
+    List<String> splitBarcodes(int parts);
+
+    /**
+     * Products with a barcode after {@code after} and up to {@code last}, in barcode order.
+     *
+     * @param after null to start at the first product
+     * @param last  null for no upper bound
+     */
+    List<ProductView> findRange(String after, String last, int limit);
+
+    /**
+     * Inserts the products with their own creation time and version and skips the barcodes that already exist.
+     * {@code updated_at} is the current time, so the change feed reports the products. On Postgres the rows are
+     * loaded with one {@code COPY} into a temporary table and one {@code INSERT} from it, so this must be called
+     * inside a transaction.
+     *
+     * @return the barcodes that were inserted
+     */
+    Set<String> insertAllIfAbsent(List<ProductView> products);
+
+    /**
+     * Inserts the product in a single statement, doing nothing if the barcode is already taken.
+     *
+     * @return false if a product with the same barcode already exists
+     */
+    boolean insert(Product product);
+
+    /**
+     * Inserts all products with a single JDBC batch. Duplicates must be filtered out by the caller.
+     */
+    void insertAll(List<Product> products);
+
+    /**
+     * Sets the price and bumps the version in a single statement that returns the updated product.
+     *
+     * @param expectedVersion if not null, the update only applies when the stored version matches
+     * @return empty if no product matched the barcode (and version)
+     */
+    Optional<Product> updatePrice(String barcode, BigDecimal price, Long expectedVersion);
+
+    /**
+     * Adds the delta to the quantity in a single statement, unless that would take it below zero.
+     *
+     * @return empty if the barcode is unknown or there is not enough stock
+     */
+    Optional<Product> adjustQuantity(String barcode, int delta);
+
+    /**
+     * Applies all movements with one JDBC batch, each guarded like {@link #adjustQuantity}.
+     *
+     * @return the update count of each movement, 0 for the ones that were not applied
+     */
+    int[] adjustQuantities(List<StockMovement> movements);
+
+    /**
+     * Applies all movements with one JDBC batch without the stock guard: quantities that would go negative
+     * are set to zero instead, as the movements already happened and cannot be refused.
+     *
+     * @return the update count of each movement, 0 for unknown barcodes
+     */
+    int[] applyQuantityDeltas(List<StockMovement> movements);
+
+    /**
+     * Products last written after the given position by a transaction older than {@code beforeTransaction},
+     * in {@code (change_xid, barcode)} order so the last row can be used as the next position.
+     */
+    List<ProductChange> findChangedBetween(ChangePosition after, long beforeTransaction, int limit);
+
+    /**
+     * The oldest transaction still running. Every transaction before it has committed or rolled back, so no change
+     * can appear behind it anymore.
+     */
+    long oldestRunningTransaction();
+
+    /**
+     * The database clock, which is what {@code updated_at} and tombstones are stamped with.
+     */
+    LocalDateTime currentTimestamp();
+}
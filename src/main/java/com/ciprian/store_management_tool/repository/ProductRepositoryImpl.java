@@ -0,0 +1,461 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.dto.ChangePosition;
+import com.ciprian.store_management_tool.dto.ProductChange;
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.model.Product;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    static final String PRODUCT_COLUMNS = "barcode, name, price, quantity, created_at, version, updated_at";
+
+    static final RowMapper<Product> PRODUCT_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return Product.builder()
+                .barcode(rs.getString("barcode"))
+                .name(rs.getString("name"))
+                .price(rs.getBigDecimal("price"))
+                .quantity(rs.getInt("quantity"))
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .version(rs.getLong("version"))
+                .updatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null)
+                .build();
+    };
+
+    static final RowMapper<ProductView> PRODUCT_VIEW_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new ProductView(
+                rs.getString("barcode"),
+                rs.getString("name"),
+                rs.getBigDecimal("price"),
+                rs.getInt("quantity"),
+                createdAt != null ? createdAt.toLocalDateTime() : null,
+                updatedAt != null ? updatedAt.toLocalDateTime() : null,
+                rs.getLong("version"));
+    };
+
+    private static final String STREAM_SQL = "SELECT " + PRODUCT_COLUMNS + " FROM products ORDER BY barcode";
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT COALESCE((SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass('products')), FALSE)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (" + PRODUCT_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, LOCALTIMESTAMP)";
+
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + " ON CONFLICT DO NOTHING";
+
+    private static final String CREATE_SNAPSHOT_TABLE_SQL = "CREATE TEMPORARY TABLE products_snapshot ("
+            + "barcode VARCHAR(32), name VARCHAR(255), price DECIMAL(10, 2), quantity INT, created_at TIMESTAMP, "
+            + "version BIGINT) ON COMMIT DROP";
+
+    private static final String INSERT_FROM_SNAPSHOT_SQL = "INSERT INTO products (" + PRODUCT_COLUMNS + ") "
+            + "SELECT barcode, name, price, quantity, created_at, version, LOCALTIMESTAMP FROM products_snapshot "
+            + "ON CONFLICT DO NOTHING RETURNING barcode";
+
+    private static final String ADJUST_QUANTITY_SQL =
+            "UPDATE products SET quantity = quantity + ?, version = version + 1, updated_at = LOCALTIMESTAMP "
+                    + "WHERE barcode = ? AND quantity + ? >= 0";
+
+    private static final String APPLY_QUANTITY_DELTA_SQL =
+            "UPDATE products SET quantity = GREATEST(quantity + ?, 0), version = version + 1, updated_at = LOCALTIMESTAMP "
+                    + "WHERE barcode = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public ProductRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${products.stream.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public void streamAll(Consumer<ProductView> action) {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class))) {
+            copyAll(action);
+            return;
+        }
+        streamingJdbcTemplate.query(STREAM_SQL, rs -> {
+            action.accept(PRODUCT_VIEW_ROW_MAPPER.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    /**
+     * Streams a partitioned products table with {@code COPY ... TO STDOUT}. Postgres never plans a query read
+     * through a cursor in parallel, but it does plan the query of a COPY in parallel, so the partitions are then
+     * scanned by several workers and gathered back in barcode order. Rows still arrive one at a time.
+     */
+    private void copyAll(Consumer<ProductView> action) {
+        jdbcTemplate.execute((Connection connection) -> {
+            CopyOut copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut("COPY (" + STREAM_SQL + ") TO STDOUT");
+            try {
+                for (byte[] row; (row = copy.readFromCopy()) != null; ) {
+                    action.accept(copyRow(row));
+                }
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Decodes one row of COPY text output: the {@link #PRODUCT_COLUMNS} separated by tabs, {@code \N} for null
+     * and backslash escapes for tabs, line breaks and backslashes inside the values.
+     */
+    static ProductView copyRow(byte[] row) {
+        String line = new String(row, StandardCharsets.UTF_8);
+        List<String> columns = new ArrayList<>(7);
+        StringBuilder column = new StringBuilder();
+        boolean isNull = false;
+        int end = line.endsWith("\n") ? line.length() - 1 : line.length();
+        for (int i = 0; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                columns.add(isNull ? null : column.toString());
+                column.setLength(0);
+                isNull = false;
+            } else if (c == '\\' && i + 1 < end) {
+                char escaped = line.charAt(++i);
+                switch (escaped) {
+                    case 'N' -> isNull = true;
+                    case 't' -> column.append('\t');
+                    case 'n' -> column.append('\n');
+                    case 'r' -> column.append('\r');
+                    case 'b' -> column.append('\b');
+                    case 'f' -> column.append('\f');
+                    case 'v' -> column.append('\u000B');
+                    default -> column.append(escaped);
+                }
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(isNull ? null : column.toString());
+        return new ProductView(
+                columns.get(0),
+                columns.get(1),
+                new BigDecimal(columns.get(2)),
+                Integer.parseInt(columns.get(3)),
+                copyTimestamp(columns.get(4)),
+                copyTimestamp(columns.get(6)),
+                Long.parseLong(columns.get(5)));
+    }
+
+    // the driver runs every session with DateStyle ISO, e.g. 2024-05-01 10:15:30.123456
+    private static LocalDateTime copyTimestamp(String value) {
+        return value != null ? LocalDateTime.parse(value.replace(' ', 'T')) : null;
+    }
+
+    @Override
+    public List<ProductView> findPage(ProductFilter filter, ProductSort sort, ProductSort.Position after, int limit) {
+        PageQuery query = pageQuery(filter, sort, after, limit);
+        Object[] args = query.args().stream()
+                .map(arg -> arg instanceof LocalDateTime timestamp ? Timestamp.valueOf(timestamp) : arg)
+                .toArray();
+        return jdbcTemplate.query(query.sql(), PRODUCT_VIEW_ROW_MAPPER, args);
+    }
+
+    /**
+     * The SELECT of one product page with its {@code ?} arguments, shared with {@link ReactiveProductRepository}.
+     * Timestamps are left as {@link LocalDateTime} for each driver to bind.
+     */
+    static PageQuery pageQuery(ProductFilter filter, ProductSort sort, ProductSort.Position after, int limit) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        // ILIKE with a leading or trailing wildcard is served by the trigram index on Postgres
+        if (filter.name() != null) {
+            conditions.add("name ILIKE ?");
+            args.add("%" + escapeLike(filter.name()) + "%");
+        }
+        if (filter.namePrefix() != null) {
+            conditions.add("name ILIKE ?");
+            args.add(escapeLike(filter.namePrefix()) + "%");
+        }
+        if (filter.minPrice() != null) {
+            conditions.add("price >= ?");
+            args.add(filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            conditions.add("price <= ?");
+            args.add(filter.maxPrice());
+        }
+        if (filter.quantityBelow() != null) {
+            conditions.add("quantity < ?");
+            args.add(filter.quantityBelow());
+        }
+        if (filter.createdAfter() != null) {
+            conditions.add("created_at > ?");
+            args.add(filter.createdAfter());
+        }
+
+        String column = sort.field().column();
+        String comparison = sort.descending() ? "<" : ">";
+        if (after != null && sort.field() == ProductSort.Field.BARCODE) {
+            conditions.add("barcode " + comparison + " ?");
+            args.add(after.barcode());
+        } else if (after != null && after.value() == null) {
+            // products without a value come last ascending and first descending, ordered by barcode
+            conditions.add(sort.descending()
+                    ? "(" + column + " IS NOT NULL OR barcode < ?)"
+                    : "(" + column + " IS NULL AND barcode > ?)");
+            args.add(after.barcode());
+        } else if (after != null) {
+            String next = "(" + column + ", barcode) " + comparison + " (?, ?)";
+            boolean nullsFollow = sort.field().nullable() && !sort.descending();
+            conditions.add(nullsFollow ? "(" + next + " OR " + column + " IS NULL)" : next);
+            args.add(after.value());
+            args.add(after.barcode());
+        }
+
+        String direction = sort.descending() ? " DESC" : " ASC";
+        StringBuilder sql = new StringBuilder("SELECT " + PRODUCT_COLUMNS + " FROM products");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ");
+        if (sort.field() != ProductSort.Field.BARCODE) {
+            // the default null order of Postgres, spelled out because the cursor conditions rely on it
+            String nulls = sort.descending() ? " NULLS FIRST" : " NULLS LAST";
+            sql.append(column).append(direction).append(sort.field().nullable() ? nulls : "").append(", ");
+        }
+        sql.append("barcode").append(direction).append(" LIMIT ?");
+        args.add(limit);
+
+        return new PageQuery(sql.toString(), args);
+    }
+
+    record PageQuery(String sql, List<Object> args) {
+    }
+
+    @Override
+    public List<String> splitBarcodes(int parts) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        List<String> splits = new ArrayList<>(parts);
+        long previous = -1;
+        for (int i = 1; i < parts; i++) {
+            long offset = count * i / parts;
+            if (offset > previous && offset > 0) {
+                // the index-only scan skips offset - 1 entries, the split is the last barcode of the range before
+                splits.addAll(jdbcTemplate.queryForList(
+                        "SELECT barcode FROM products ORDER BY barcode LIMIT 1 OFFSET ?", String.class, offset - 1));
+                previous = offset;
+            }
+        }
+        return splits;
+    }
+
+    @Override
+    public List<ProductView> findRange(String after, String last, int limit) {
+        List<String> conditions = new ArrayList<>(2);
+        List<Object> args = new ArrayList<>(3);
+        if (after != null) {
+            conditions.add("barcode > ?");
+            args.add(after);
+        }
+        if (last != null) {
+            conditions.add("barcode <= ?");
+            args.add(last);
+        }
+        args.add(limit);
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return jdbcTemplate.query("SELECT " + PRODUCT_COLUMNS + " FROM products" + where + " ORDER BY barcode LIMIT ?",
+                PRODUCT_VIEW_ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public Set<String> insertAllIfAbsent(List<ProductView> products) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_SNAPSHOT_TABLE_SQL);
+            }
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copy.copyIn("COPY products_snapshot FROM STDIN", new StringReader(copyInput(products)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Set<String> inserted = new HashSet<>(products.size());
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(INSERT_FROM_SNAPSHOT_SQL)) {
+                while (rs.next()) {
+                    inserted.add(rs.getString(1));
+                }
+            }
+            return inserted;
+        });
+    }
+
+    /**
+     * The products as COPY text input for {@code products_snapshot}, one line per product.
+     */
+    static String copyInput(List<ProductView> products) {
+        StringBuilder rows = new StringBuilder(products.size() * 64);
+        for (ProductView product : products) {
+            copyValue(rows, product.barcode()).append('\t');
+            copyValue(rows, product.name()).append('\t');
+            rows.append(product.price().toPlainString()).append('\t');
+            rows.append(product.quantity()).append('\t');
+            rows.append(product.createdAt() != null ? product.createdAt().toString() : "\\N").append('\t');
+            rows.append(product.version() != null ? product.version() : 0).append('\n');
+        }
+        return rows.toString();
+    }
+
+    private static StringBuilder copyValue(StringBuilder rows, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> rows.append("\\\\");
+                case '\t' -> rows.append("\\t");
+                case '\n' -> rows.append("\\n");
+                case '\r' -> rows.append("\\r");
+                default -> rows.append(c);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public boolean insert(Product product) {
+        return jdbcTemplate.update(INSERT_IF_ABSENT_SQL,
+                product.getBarcode(),
+                product.getName(),
+                product.getPrice(),
+                product.getQuantity(),
+                Timestamp.valueOf(product.getCreatedAt()),
+                product.getVersion()) == 1;
+    }
+
+    @Override
+    public void insertAll(List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, products, products.size(), (ps, product) -> {
+            ps.setString(1, product.getBarcode());
+            ps.setString(2, product.getName());
+            ps.setBigDecimal(3, product.getPrice());
+            ps.setInt(4, product.getQuantity());
+            ps.setTimestamp(5, Timestamp.valueOf(product.getCreatedAt()));
+            ps.setLong(6, product.getVersion());
+        });
+    }
+
+    @Override
+    public Optional<Product> updatePrice(String barcode, BigDecimal price, Long expectedVersion) {
+        String update = "UPDATE products SET price = ?, version = version + 1, updated_at = LOCALTIMESTAMP WHERE barcode = ?";
+        if (expectedVersion == null) {
+            return queryForOptional(returning(update), price, barcode);
+        }
+        return queryForOptional(returning(update + " AND version = ?"), price, barcode, expectedVersion);
+    }
+
+    @Override
+    public Optional<Product> adjustQuantity(String barcode, int delta) {
+        return queryForOptional(returning(ADJUST_QUANTITY_SQL), delta, barcode, delta);
+    }
+
+    @Override
+    public int[] adjustQuantities(List<StockMovement> movements) {
+        return jdbcTemplate.batchUpdate(ADJUST_QUANTITY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockMovement movement = movements.get(i);
+                ps.setInt(1, movement.delta());
+                ps.setString(2, movement.barcode());
+                ps.setInt(3, movement.delta());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return movements.size();
+            }
+        });
+    }
+
+    @Override
+    public int[] applyQuantityDeltas(List<StockMovement> movements) {
+        return jdbcTemplate.batchUpdate(APPLY_QUANTITY_DELTA_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockMovement movement = movements.get(i);
+                ps.setInt(1, movement.delta());
+                ps.setString(2, movement.barcode());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return movements.size();
+            }
+        });
+    }
+
+    @Override
+    public List<ProductChange> findChangedBetween(ChangePosition after, long beforeTransaction, int limit) {
+        // xid8 has no cast from a number, so the transaction ids travel as text
+        return jdbcTemplate.query(
+                "SELECT change_xid::text AS change_xid, " + PRODUCT_COLUMNS + " FROM products "
+                        + "WHERE (change_xid, barcode) > (CAST(? AS xid8), ?) AND change_xid < CAST(? AS xid8) "
+                        + "ORDER BY change_xid, barcode LIMIT ?",
+                (rs, rowNum) -> new ProductChange(
+                        new ChangePosition(Long.parseLong(rs.getString("change_xid")), rs.getString("barcode")),
+                        PRODUCT_VIEW_ROW_MAPPER.mapRow(rs, rowNum)),
+                Long.toString(after.transactionId()), after.barcode(), Long.toString(beforeTransaction), limit);
+    }
+
+    @Override
+    public long oldestRunningTransaction() {
+        return Long.parseLong(jdbcTemplate.queryForObject(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot())::text", String.class));
+    }
+
+    @Override
+    public LocalDateTime currentTimestamp() {
+        return jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class).toLocalDateTime();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private Optional<Product> queryForOptional(String sql, Object... args) {
+        return jdbcTemplate.query(sql, PRODUCT_ROW_MAPPER, args).stream().findFirst();
+    }
+
+    private static String returning(String update) {
+        return update + " RETURNING " + PRODUCT_COLUMNS;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.dto.ChangePosition;
+import com.ciprian.store_management_tool.dto.ProductChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deleted barcodes, kept for the change feed so clients that synced before a delete learn about it.
+ * Rows are only ever inserted and pruned, so a barcode deleted twice simply has two tombstones.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductTombstoneRepository {
+
+    private static final RowMapper<ProductChange> TOMBSTONE_ROW_MAPPER = (rs, rowNum) -> new ProductChange(
+            new ChangePosition(Long.parseLong(rs.getString("change_xid")), rs.getString("barcode")),
+            null);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the delete. {@code change_xid} defaults to the current transaction.
+     */
+    public void save(String barcode) {
+        jdbcTemplate.update("INSERT INTO product_tombstones (barcode, deleted_at) VALUES (?, LOCALTIMESTAMP)", barcode);
+    }
+
+    /**
+     * Tombstones after the given position written by a transaction older than {@code beforeTransaction},
+     * in feed order.
+     */
+    public List<ProductChange> findDeletedBetween(ChangePosition after, long beforeTransaction, int limit) {
+        return jdbcTemplate.query(
+                "SELECT change_xid::text AS change_xid, barcode FROM product_tombstones "
+                        + "WHERE (change_xid, barcode) > (CAST(? AS xid8), ?) AND change_xid < CAST(? AS xid8) "
+                        + "ORDER BY change_xid, barcode LIMIT ?",
+                TOMBSTONE_ROW_MAPPER,
+                Long.toString(after.transactionId()), after.barcode(), Long.toString(beforeTransaction), limit);
+    }
+
+    public int deleteOlderThan(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM product_tombstones WHERE deleted_at < ?", Timestamp.valueOf(cutoff));
+    }
+}
@@ -0,0 +1,118 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.ProductView;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.ciprian.store_management_tool.repository.ProductRepositoryImpl.PRODUCT_COLUMNS;
+
+/**
+ * Non-blocking reads of the products table over R2DBC, used by the reactive stack only. Its connection pool is
+ * private rather than a {@code ConnectionFactory} bean: such a bean would switch off the JDBC {@code DataSource}
+ * that JPA, Flyway and every write still run on.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductRepository {
+
+    private final ConnectionPool connectionPool;
+
+    private final DatabaseClient databaseClient;
+
+    private final int fetchSize;
+
+    public ReactiveProductRepository(@Value("${products.reactive.r2dbc.url}") String url,
+                                     @Value("${products.reactive.r2dbc.username}") String username,
+                                     @Value("${products.reactive.r2dbc.password}") String password,
+                                     @Value("${products.reactive.r2dbc.max-size:20}") int maxSize,
+                                     @Value("${products.stream.fetch-size:1000}") int fetchSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(
+                ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                        .initialSize(maxSize)
+                        .maxSize(maxSize)
+                        .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.fetchSize = fetchSize;
+    }
+
+    @PreDestroy
+    void close() {
+        connectionPool.dispose();
+    }
+
+    public Mono<ProductView> findViewByBarcode(String barcode) {
+        return databaseClient.sql("SELECT " + PRODUCT_COLUMNS + " FROM products WHERE barcode = :barcode")
+                .bind("barcode", barcode)
+                .map(ReactiveProductRepository::toView)
+                .one();
+    }
+
+    public Flux<ProductView> findPage(ProductFilter filter, ProductSort sort, ProductSort.Position after, int limit) {
+        ProductRepositoryImpl.PageQuery query = ProductRepositoryImpl.pageQuery(filter, sort, after, limit);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(namedParameters(query.sql()));
+        List<Object> args = query.args();
+        for (int i = 0; i < args.size(); i++) {
+            spec = spec.bind("p" + i, args.get(i));
+        }
+        return spec.map(ReactiveProductRepository::toView).all();
+    }
+
+    /**
+     * The whole catalog in barcode order. Rows are fetched {@code products.stream.fetch-size} at a time as the
+     * subscriber requests them, so a slow client holds back the query instead of filling the memory.
+     */
+    public Flux<ProductView> streamAll() {
+        return databaseClient.sql("SELECT " + PRODUCT_COLUMNS + " FROM products ORDER BY barcode")
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .map(ReactiveProductRepository::toView)
+                .all();
+    }
+
+    /**
+     * Replaces the JDBC {@code ?} placeholders with {@code :p0, :p1, ...}, which the database client expands to
+     * the bind markers of the driver.
+     */
+    private static String namedParameters(String sql) {
+        StringBuilder named = new StringBuilder(sql.length() + 16);
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                named.append(":p").append(index++);
+            } else {
+                named.append(c);
+            }
+        }
+        return named.toString();
+    }
+
+    private static ProductView toView(Readable row) {
+        return new ProductView(
+                row.get("barcode", String.class),
+                row.get("name", String.class),
+                row.get("price", BigDecimal.class),
+                row.get("quantity", Integer.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,129 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.dto.StoreStock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stock and local prices per store. The primary key {@code (barcode, store_id)} keeps all stores of a barcode next
+ * to each other, so the stores of one product or of a batch of products are read with a single index range scan
+ * per barcode. On Postgres, in-stock lookups scan the partial index {@code idx_store_inventory_in_stock} instead.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StoreInventoryRepository {
+
+    // stores without a local price sell at the product price
+    private static final String STORE_STOCK_COLUMNS =
+            "p.barcode, i.store_id, i.quantity, COALESCE(i.price, p.price) AS price, i.updated_at";
+
+    private static final RowMapper<StoreStock> STORE_STOCK_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return new StoreStock(
+                rs.getString("barcode"),
+                rs.getString("store_id"),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("price"),
+                updatedAt != null ? updatedAt.toLocalDateTime() : null);
+    };
+
+    // selects from products so nothing is inserted for an unknown barcode
+    private static final String UPSERT_SQL =
+            "INSERT INTO store_inventory (barcode, store_id, quantity, price, updated_at) "
+                    + "SELECT barcode, ?, ?, CAST(? AS DECIMAL(10, 2)), LOCALTIMESTAMP FROM products WHERE barcode = ? "
+                    + "ON CONFLICT (barcode, store_id) DO UPDATE SET quantity = EXCLUDED.quantity, "
+                    + "price = EXCLUDED.price, updated_at = EXCLUDED.updated_at";
+
+    private static final String ADJUST_QUANTITY_SQL =
+            "UPDATE store_inventory SET quantity = quantity + ?, updated_at = LOCALTIMESTAMP "
+                    + "WHERE barcode = ? AND store_id = ? AND quantity + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The stores of one product in a single query, in store order.
+     *
+     * @param inStock only the stores with a positive quantity
+     * @return empty if the barcode is unknown, an empty list if no store lists the product
+     */
+    public Optional<List<StoreStock>> findByBarcode(String barcode, boolean inStock) {
+        // the outer join returns one row without a store for a product that no store lists
+        List<StoreStock> rows = jdbcTemplate.query(
+                "SELECT " + STORE_STOCK_COLUMNS + " FROM products p "
+                        + "LEFT JOIN store_inventory i ON i.barcode = p.barcode" + (inStock ? " AND i.quantity > 0" : "")
+                        + " WHERE p.barcode = ? ORDER BY i.store_id",
+                STORE_STOCK_ROW_MAPPER, barcode);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(rows.stream().filter(stock -> stock.storeId() != null).toList());
+    }
+
+    /**
+     * The stock of several products in several stores in a single query, in barcode and store order. The barcodes
+     * and stores are bound as two array parameters, so every batch runs the same prepared statement.
+     *
+     * @param storeIds all stores when empty
+     */
+    public List<StoreStock> findByBarcodes(Collection<String> barcodes, Collection<String> storeIds, boolean inStock) {
+        StringBuilder sql = new StringBuilder("SELECT " + STORE_STOCK_COLUMNS + " FROM store_inventory i "
+                + "JOIN products p ON p.barcode = i.barcode WHERE i.barcode = ANY (?)");
+        if (!storeIds.isEmpty()) {
+            sql.append(" AND i.store_id = ANY (?)");
+        }
+        if (inStock) {
+            sql.append(" AND i.quantity > 0");
+        }
+        sql.append(" ORDER BY i.barcode, i.store_id");
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString());
+            ps.setArray(1, connection.createArrayOf("varchar", barcodes.toArray()));
+            if (!storeIds.isEmpty()) {
+                ps.setArray(2, connection.createArrayOf("varchar", storeIds.toArray()));
+            }
+            return ps;
+        }, STORE_STOCK_ROW_MAPPER);
+    }
+
+    public Optional<StoreStock> findOne(String barcode, String storeId) {
+        return jdbcTemplate.query(
+                "SELECT " + STORE_STOCK_COLUMNS + " FROM store_inventory i JOIN products p ON p.barcode = i.barcode "
+                        + "WHERE i.barcode = ? AND i.store_id = ?",
+                STORE_STOCK_ROW_MAPPER, barcode, storeId).stream().findFirst();
+    }
+
+    public boolean exists(String barcode, String storeId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM store_inventory WHERE barcode = ? AND store_id = ?",
+                Integer.class, barcode, storeId);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Sets the quantity and local price of the product in the store in a single upsert, adding the store if it does
+     * not list the product yet. A store added concurrently by another transaction is updated instead.
+     *
+     * @return false if the barcode is unknown
+     */
+    public boolean save(String barcode, String storeId, int quantity, BigDecimal price) {
+        return jdbcTemplate.update(UPSERT_SQL, storeId, quantity, price, barcode) == 1;
+    }
+
+    /**
+     * Adds the delta to the quantity in the store in a single statement, unless that would take it below zero.
+     *
+     * @return false if the store does not list the product or does not have enough stock
+     */
+    public boolean adjustQuantity(String barcode, String storeId, int delta) {
+        return jdbcTemplate.update(ADJUST_QUANTITY_SQL, delta, barcode, storeId, delta) == 1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ciprian.store_management_tool.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * What has to happen once a change of the catalog commits, whether or not it sent product events: the
+ * {@link CatalogVersion} moves and, with read replicas, the client's next reads go to the primary
+ * ({@link RecentWrites}). The services that change products call it in the transaction of the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogChanges {
+
+    private final CatalogVersion catalogVersion;
+
+    private final ObjectProvider<RecentWrites> recentWrites;
+
+    /**
+     * Registers the bookkeeping for after the current transaction commits, or does it right away without one.
+     */
+    public void changedAfterCommit() {
+        catalogVersion.incrementAfterCommit();
+        recentWrites.ifAvailable(RecentWrites::recordAfterCommit);
+    }
+}
@@ -0,0 +1,230 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.exception.InvalidSnapshotException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * The catalog snapshot file: a header, then blocks of up to {@code products.snapshot.block-size} products, then an
+ * empty block followed by the total row count, so a truncated file is detected.
+ * <p>
+ * Each block is its row count, its length and its deflated columns: all barcodes, then all names, prices,
+ * quantities, creation times, update times and versions. Values of one column sit next to each other, which is what
+ * makes them compress well, and every block is compressed on its own so blocks can be built in parallel.
+ * Prices are written as scale and unscaled value, times as microseconds since the epoch, with
+ * {@link Long#MIN_VALUE} for null.
+ */
+final class CatalogSnapshotFormat {
+
+    static final byte[] MAGIC = {'S', 'M', 'T', 'S', 'N', 'A', 'P'};
+
+    static final int VERSION = 1;
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private CatalogSnapshotFormat() {
+    }
+
+    static void writeHeader(DataOutputStream output) throws IOException {
+        output.write(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    static void writeBlock(DataOutputStream output, Block block) throws IOException {
+        output.writeInt(block.rows());
+        output.writeInt(block.data().length);
+        output.write(block.data());
+    }
+
+    static void writeEnd(DataOutputStream output, long rows) throws IOException {
+        output.writeInt(0);
+        output.writeLong(rows);
+        output.flush();
+    }
+
+    /**
+     * Encodes and compresses one block, in the caller's thread.
+     */
+    static Block encode(List<ProductView> products) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(products.size() * 48);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream columns = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 8192))) {
+            for (ProductView product : products) {
+                columns.writeUTF(product.barcode());
+            }
+            for (ProductView product : products) {
+                columns.writeUTF(product.name());
+            }
+            for (ProductView product : products) {
+                columns.writeByte(product.price().scale());
+                columns.writeLong(product.price().unscaledValue().longValueExact());
+            }
+            for (ProductView product : products) {
+                columns.writeInt(product.quantity());
+            }
+            for (ProductView product : products) {
+                columns.writeLong(micros(product.createdAt()));
+            }
+            for (ProductView product : products) {
+                columns.writeLong(micros(product.updatedAt()));
+            }
+            for (ProductView product : products) {
+                columns.writeLong(product.version() != null ? product.version() : 0);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode a snapshot block in memory", e);
+        } finally {
+            deflater.end();
+        }
+        return new Block(products.size(), bytes.toByteArray());
+    }
+
+    static Reader reader(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        byte[] magic = new byte[MAGIC.length];
+        try {
+            data.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new InvalidSnapshotException("not a catalog snapshot");
+            }
+            int version = data.readInt();
+            if (version != VERSION) {
+                throw new InvalidSnapshotException("unsupported version " + version);
+            }
+        } catch (EOFException e) {
+            throw new InvalidSnapshotException("not a catalog snapshot");
+        }
+        return new Reader(data);
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return NULL_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime time(long micros) {
+        if (micros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * One compressed block, as written to the file.
+     */
+    record Block(int rows, byte[] data) {
+    }
+
+    /**
+     * Reads a snapshot block by block, so only one block is held in memory.
+     */
+    static final class Reader {
+
+        private final DataInputStream input;
+
+        private long rows;
+
+        private Reader(DataInputStream input) {
+            this.input = input;
+        }
+
+        /**
+         * @return the products of the next block, null after the last one
+         * @throws InvalidSnapshotException if the file is truncated or its row count does not match
+         */
+        List<ProductView> nextBlock() throws IOException {
+            try {
+                int count = input.readInt();
+                if (count == 0) {
+                    long expected = input.readLong();
+                    if (expected != rows) {
+                        throw new InvalidSnapshotException("expected " + expected + " products but read " + rows);
+                    }
+                    return null;
+                }
+                int length = input.readInt();
+                if (count < 0 || length < 0) {
+                    throw new InvalidSnapshotException("a block after " + rows + " products is corrupt");
+                }
+                byte[] data = new byte[length];
+                input.readFully(data);
+                List<ProductView> products = decodeBlock(count, data);
+                rows += count;
+                return products;
+            } catch (EOFException e) {
+                throw new InvalidSnapshotException("the file ends after " + rows + " products");
+            }
+        }
+
+        private List<ProductView> decodeBlock(int count, byte[] data) throws IOException {
+            try {
+                return decode(count, data);
+            } catch (EOFException | ZipException | UTFDataFormatException e) {
+                throw new InvalidSnapshotException("a block after " + rows + " products is corrupt");
+            }
+        }
+
+        private static List<ProductView> decode(int count, byte[] data) throws IOException {
+            String[] barcodes = new String[count];
+            String[] names = new String[count];
+            BigDecimal[] prices = new BigDecimal[count];
+            int[] quantities = new int[count];
+            long[] createdAt = new long[count];
+            long[] updatedAt = new long[count];
+            Inflater inflater = new Inflater();
+            try (DataInputStream columns = new DataInputStream(
+                    new InflaterInputStream(new ByteArrayInputStream(data), inflater, 8192))) {
+                for (int i = 0; i < count; i++) {
+                    barcodes[i] = columns.readUTF();
+                }
+                for (int i = 0; i < count; i++) {
+                    names[i] = columns.readUTF();
+                }
+                for (int i = 0; i < count; i++) {
+                    int scale = columns.readByte();
+                    prices[i] = new BigDecimal(BigInteger.valueOf(columns.readLong()), scale);
+                }
+                for (int i = 0; i < count; i++) {
+                    quantities[i] = columns.readInt();
+                }
+                for (int i = 0; i < count; i++) {
+                    createdAt[i] = columns.readLong();
+                }
+                for (int i = 0; i < count; i++) {
+                    updatedAt[i] = columns.readLong();
+                }
+                List<ProductView> products = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    products.add(new ProductView(barcodes[i], names[i], prices[i], quantities[i],
+                            time(createdAt[i]), time(updatedAt[i]), columns.readLong()));
+                }
+                return products;
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.configuration.CacheConfig;
+import com.ciprian.store_management_tool.dto.CatalogSnapshotSummary;
+import com.ciprian.store_management_tool.dto.ProductCreatedEvent;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves the whole catalog between environments as a {@link CatalogSnapshotFormat} file. The export splits the
+ * barcodes into {@code products.snapshot.parallelism} ranges that are read and compressed in parallel, a keyset page
+ * at a time. The import loads each block with one bulk insert instead of a call per product.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private final ProductRepository repository;
+
+    private final ProductEventPublisher eventPublisher;
+
+    private final CatalogChanges catalogChanges;
+
+    private final CacheManager cacheManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final TransactionTemplate transaction;
+
+    private final int blockSize;
+
+    private final int parallelism;
+
+    public CatalogSnapshotService(ProductRepository repository, ProductEventPublisher eventPublisher,
+                                  CatalogChanges catalogChanges, CacheManager cacheManager,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${products.snapshot.block-size:10000}") int blockSize,
+                                  @Value("${products.snapshot.parallelism:4}") int parallelism) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.catalogChanges = catalogChanges;
+        this.cacheManager = cacheManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.blockSize = blockSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Writes every product to the output. Each range is read in pages of one block, each in its own short read-only
+     * transaction, so no connection is held while the client reads. Products changed during the export are written
+     * as they were when their page was read. Blocks are written in the order they are ready, not in barcode order.
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "exportSnapshot"})
+    public void exportTo(OutputStream output) throws IOException {
+        List<String> splits = readOnlyTransaction.execute(status -> repository.splitBarcodes(parallelism));
+        int ranges = splits.size() + 1;
+        log.info("Exporting the catalog snapshot in {} barcode ranges", ranges);
+
+        BlockingQueue<RangeBlock> blocks = new ArrayBlockingQueue<>(ranges * 2);
+        DataOutputStream data = new DataOutputStream(output);
+        CatalogSnapshotFormat.writeHeader(data);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < ranges; i++) {
+                String after = i == 0 ? null : splits.get(i - 1);
+                String last = i == splits.size() ? null : splits.get(i);
+                executor.execute(() -> exportRange(after, last, blocks));
+            }
+            long rows = 0;
+            for (int finished = 0; finished < ranges; ) {
+                RangeBlock next = blocks.take();
+                if (next.failure() != null) {
+                    throw new IllegalStateException("Could not read a barcode range of the snapshot", next.failure());
+                }
+                if (next.block() == null) {
+                    finished++;
+                } else {
+                    CatalogSnapshotFormat.writeBlock(data, next.block());
+                    rows += next.block().rows();
+                }
+            }
+            CatalogSnapshotFormat.writeEnd(data, rows);
+            log.info("Exported {} products", rows);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while exporting the catalog snapshot");
+        } finally {
+            // stops the ranges still running when the client went away or a range failed
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads a snapshot block by block, each block in its own transaction. Barcodes that already exist are kept as
+     * they are. With {@code publishEvents} a created event is written to the outbox per product, with one JDBC
+     * batch per block; without, no events are sent and other instances only see the new products once their
+     * cached misses expire.
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "importSnapshot"})
+    public CatalogSnapshotSummary importFrom(InputStream input, boolean publishEvents) throws IOException {
+        CatalogSnapshotFormat.Reader reader = CatalogSnapshotFormat.reader(input);
+        long rows = 0;
+        long created = 0;
+        try {
+            for (List<ProductView> block; (block = reader.nextBlock()) != null; ) {
+                List<ProductView> products = block;
+                rows += products.size();
+                created += transaction.execute(status -> importBlock(products, publishEvents));
+            }
+        } finally {
+            // unknown barcodes are cached too
+            Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.info("Imported {} of {} products from the snapshot", created, rows);
+        return new CatalogSnapshotSummary(rows, created, rows - created);
+    }
+
+    private int importBlock(List<ProductView> products, boolean publishEvents) {
+        Set<String> inserted = repository.insertAllIfAbsent(products);
+        if (inserted.isEmpty()) {
+            return 0;
+        }
+        if (publishEvents) {
+            eventPublisher.publishAll(products.stream()
+                    .filter(product -> inserted.contains(product.barcode()))
+                    .map(product -> ProductCreatedEvent.of(Product.builder()
+                            .barcode(product.barcode())
+                            .name(product.name())
+                            .price(product.price())
+                            .quantity(product.quantity())
+                            .build()))
+                    .toList());
+        }
+        catalogChanges.changedAfterCommit();
+        return inserted.size();
+    }
+
+    private void exportRange(String after, String last, BlockingQueue<RangeBlock> blocks) {
+        try {
+            try {
+                String position = after;
+                while (true) {
+                    String from = position;
+                    List<ProductView> page = readOnlyTransaction.execute(status -> repository.findRange(from, last, blockSize));
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    blocks.put(new RangeBlock(CatalogSnapshotFormat.encode(page), null));
+                    if (page.size() < blockSize) {
+                        break;
+                    }
+                    position = page.getLast().barcode();
+                }
+                blocks.put(RangeBlock.END);
+            } catch (RuntimeException e) {
+                // waits for room like a block, the export keeps taking blocks until it sees the failure
+                blocks.put(new RangeBlock(null, e));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A block of one range, the end of a range when both are null, or the failure of a range.
+     */
+    private record RangeBlock(CatalogSnapshotFormat.Block block, Throwable failure) {
+
+        static final RangeBlock END = new RangeBlock(null, null);
+    }
+}
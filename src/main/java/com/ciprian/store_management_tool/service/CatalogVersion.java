@@ -0,0 +1,72 @@
+package com.ciprian.store_management_tool.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version of the whole catalog, sent as the ETag of product pages so that polling clients can be
+ * answered with 304 without a query. It moves after every committed change of this instance and on every product
+ * event from the other instances. The random epoch keeps the ETags of two instances, or of a restarted one, from
+ * ever matching, at the cost of one full response when a client switches instance.
+ * <p>
+ * With read replicas, a change only moves the version once the replicas can serve it, see
+ * {@link #CatalogVersion(Duration)}. The bean is defined in {@code CatalogVersionConfig}.
+ */
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final AtomicLong changes = new AtomicLong();
+
+    private final Duration changeDelay;
+
+    public CatalogVersion() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * Moves the version only {@code changeDelay} after each change. Without it, a client could get the new ETag with
+     * a page read from a replica that does not have the change yet, and keep that page until the next change.
+     */
+    public CatalogVersion(Duration changeDelay) {
+        this.changeDelay = changeDelay;
+    }
+
+    /**
+     * A weak ETag, as the version says nothing about the representation of the page.
+     */
+    public String eTag() {
+        return "W/\"" + epoch + "." + changes.get() + "\"";
+    }
+
+    public void increment() {
+        if (changeDelay.isZero()) {
+            changes.incrementAndGet();
+        } else {
+            CompletableFuture.delayedExecutor(changeDelay.toMillis(), TimeUnit.MILLISECONDS).execute(changes::incrementAndGet);
+        }
+    }
+
+    /**
+     * Moves the version once the current transaction commits, so a client can never get the new ETag with a page
+     * read before the change was visible. Without a transaction the version moves right away.
+     */
+    public void incrementAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment();
+            }
+        });
+    }
+}
@@ -0,0 +1,189 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.ProductEvent;
+import com.ciprian.store_management_tool.model.OutboxEvent;
+import com.ciprian.store_management_tool.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox table to Kafka in batches. A batch is only deleted once Kafka acknowledged every event in it,
+ * so a crash or a broker outage leads to events being sent again rather than lost (at-least-once delivery).
+ * Events that cannot be read back, with an unknown type or a payload that no longer deserializes, would fail every
+ * batch they are in; they are moved to {@code product_outbox_dead_letters} instead and the batch goes on without them.
+ * <p>
+ * Only one instance relays at a time: a batch is claimed under a database advisory lock, and the other instances skip
+ * their run while it is held. Batches are therefore sent in outbox id order, which keeps the events of each product
+ * in the order of their {@link ProductEvent#sequence()} on the topic.
+ * <p>
+ * At most one batch per instance is in flight. After a failed batch the relay backs off exponentially, so during a
+ * broker outage events wait in the outbox table instead of piling up in producer memory.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "products.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long intervalMs;
+    private final long maxBackoffMs;
+
+    private final Counter acknowledged;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final Timer sendLatency;
+
+    private long backoffMs;
+    private long retryNotBefore;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${products.outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${products.outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${products.outbox.relay.interval-ms:200}") long intervalMs,
+                       @Value("${products.outbox.relay.max-backoff-ms:30000}") long maxBackoffMs) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.intervalMs = intervalMs;
+        this.maxBackoffMs = maxBackoffMs;
+
+        this.acknowledged = Counter.builder("products.outbox.sent")
+                .description("Outbox events acknowledged by Kafka")
+                .tag("result", "ack")
+                .register(meterRegistry);
+        this.failed = Counter.builder("products.outbox.sent")
+                .description("Outbox events Kafka failed to acknowledge")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("products.outbox.sent")
+                .description("Outbox events moved to the dead letters because they could not be read")
+                .tag("result", "dead_letter")
+                .register(meterRegistry);
+        this.sendLatency = Timer.builder("products.outbox.send.latency")
+                .description("Time from send to Kafka acknowledgement")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${products.outbox.relay.interval-ms:200}")
+    public void relay() {
+        if (System.currentTimeMillis() < retryNotBefore) {
+            return;
+        }
+        try {
+            Integer sent;
+            do {
+                sent = transactionTemplate.execute(status -> relayBatch());
+            } while (sent != null && sent == batchSize);
+            backoffMs = 0;
+        } catch (RuntimeException e) {
+            backoffMs = Math.min(Math.max(backoffMs * 2, intervalMs), maxBackoffMs);
+            retryNotBefore = System.currentTimeMillis() + backoffMs;
+            log.warn("Outbox relay failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+        }
+    }
+
+    long getBackoffMs() {
+        return backoffMs;
+    }
+
+    int relayBatch() {
+        if (!outboxRepository.tryLockRelay()) {
+            log.debug("Another instance is relaying the outbox");
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEvent> sent = new ArrayList<>(batch.size());
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            ProductEvent payload;
+            try {
+                payload = readPayload(event);
+            } catch (RuntimeException e) {
+                log.error("Moving outbox event {} of type {} to the dead letters: {}", event.id(), event.eventType(),
+                        e.getMessage());
+                outboxRepository.moveToDeadLetters(event, e.getMessage());
+                deadLettered.increment();
+                continue;
+            }
+            sends.add(send(event, payload));
+            sent.add(event);
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending outbox events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not send outbox batch to Kafka", e);
+        }
+
+        if (!sent.isEmpty()) {
+            outboxRepository.deleteAll(sent);
+        }
+        log.debug("Relayed {} outbox events to Kafka", sent.size());
+        return batch.size();
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event, ProductEvent payload) {
+        long start = System.nanoTime();
+        return kafkaTemplate.send(ProductEventPublisher.TOPIC, event.eventKey(), payload)
+                .whenComplete((result, error) -> {
+                    if (error == null) {
+                        acknowledged.increment();
+                        sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    } else {
+                        failed.increment();
+                        log.debug("Kafka did not acknowledge outbox event {}: {}", event.id(), error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Reads the event back and stamps it with the outbox id, which grows with every change written to the outbox.
+     */
+    private ProductEvent readPayload(OutboxEvent event) {
+        Class<?> type = ProductEventPublisher.EVENT_TYPES.get(event.eventType());
+        if (type == null) {
+            throw new IllegalStateException("Unknown outbox event type " + event.eventType());
+        }
+        try {
+            return ((ProductEvent) objectMapper.readValue(event.payload(), type)).withSequence(event.id());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read outbox event " + event.id(), e);
+        }
+    }
+}
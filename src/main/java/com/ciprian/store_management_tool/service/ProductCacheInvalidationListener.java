@@ -0,0 +1,39 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.configuration.CacheConfig;
+import com.ciprian.store_management_tool.dto.ProductEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached products changed by other instances and moves the {@link CatalogVersion}. Every instance joins its own consumer group
+ * so each of them sees every event on the topic. The group is named after
+ * {@code products.cache.invalidation-listener.instance-id}, so a restarted instance rejoins its previous group instead
+ * of leaving one more behind on the broker.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidationListener {
+
+    private final CacheManager cacheManager;
+
+    private final CatalogVersion catalogVersion;
+
+    @KafkaListener(
+            topics = ProductEventPublisher.TOPIC,
+            groupId = "${spring.application.name:store-management-tool}-cache-${products.cache.invalidation-listener.instance-id}",
+            autoStartup = "${products.cache.invalidation-listener.enabled:true}")
+    public void onProductEvent(ProductEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            log.debug("Evicting cached product with barcode: {}", event.barcode());
+            cache.evict(event.barcode());
+        }
+        catalogVersion.increment();
+    }
+}
@@ -0,0 +1,135 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.configuration.ReadFromPrimary;
+import com.ciprian.store_management_tool.dto.ChangePosition;
+import com.ciprian.store_management_tool.dto.ChangesToken;
+import com.ciprian.store_management_tool.dto.ProductChange;
+import com.ciprian.store_management_tool.dto.ProductChanges;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.exception.ChangesTokenException;
+import com.ciprian.store_management_tool.exception.StoreExceptionType;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import com.ciprian.store_management_tool.repository.ProductTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change feed for clients that keep a local copy of the catalog.
+ * <p>
+ * Every product row and tombstone carries the id of the transaction that last wrote it ({@code change_xid}), and
+ * the feed is ordered by it. Transaction ids are handed out when a transaction starts, not when it commits, so a
+ * slow transaction can commit rows behind ones a client has already read past. The feed therefore only hands out
+ * changes of transactions older than the oldest one still running: those have all committed or rolled back, and no
+ * change can appear behind them anymore. A transaction that stays open holds back every change after it, whatever
+ * table it writes to, until it ends.
+ */
+@Slf4j
+@Service
+public class ProductChangesService {
+
+    private final ProductRepository productRepository;
+
+    private final ProductTombstoneRepository tombstoneRepository;
+
+    private final Duration tombstoneRetention;
+
+    public ProductChangesService(ProductRepository productRepository,
+                                 ProductTombstoneRepository tombstoneRepository,
+                                 @Value("${products.changes.tombstone-retention-days:30}") long tombstoneRetentionDays) {
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    /**
+     * Returns up to {@code limit} changes after the token. A missing token starts from the beginning, which returns
+     * the whole catalog page by page.
+     *
+     * @throws ChangesTokenException if the token is malformed, or older than the tombstone retention
+     */
+    // on the primary: the running transactions of a replica say nothing about the primary, and a token built on
+    // them could skip changes for good
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public ProductChanges changesSince(String token, int limit) {
+        ChangesToken since = ChangesToken.decode(token);
+        LocalDateTime now = productRepository.currentTimestamp();
+
+        if (since.issuedAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new ChangesTokenException(StoreExceptionType.CHANGES_TOKEN_EXPIRED, token);
+        }
+
+        // read before the changes, so the rows of every transaction below it are visible to the queries that follow
+        long bound = productRepository.oldestRunningTransaction();
+        ChangePosition after = since.position();
+        if (after.transactionId() >= bound) {
+            return new ProductChanges(List.of(), List.of(), new ChangesToken(after, now).encode(), false);
+        }
+
+        log.debug("Returning up to {} product changes after transaction {}", limit, after.transactionId());
+        List<ProductChange> products = productRepository.findChangedBetween(after, bound, limit);
+        List<ProductChange> tombstones = tombstoneRepository.findDeletedBetween(after, bound, limit);
+
+        // merge both sources in feed order, keeping only the latest change per barcode
+        Map<String, ProductView> latest = new LinkedHashMap<>();
+        ChangePosition last = after;
+        int productIndex = 0;
+        int tombstoneIndex = 0;
+        for (int taken = 0; taken < limit; taken++) {
+            ProductChange product = productIndex < products.size() ? products.get(productIndex) : null;
+            ProductChange tombstone = tombstoneIndex < tombstones.size() ? tombstones.get(tombstoneIndex) : null;
+            if (product == null && tombstone == null) {
+                break;
+            }
+
+            ProductChange next;
+            if (tombstone == null || (product != null && product.position().compareTo(tombstone.position()) < 0)) {
+                next = product;
+                productIndex++;
+            } else {
+                next = tombstone;
+                tombstoneIndex++;
+            }
+            latest.remove(next.barcode());
+            latest.put(next.barcode(), next.product());
+            last = next.position();
+        }
+
+        boolean hasMore = productIndex < products.size() || tombstoneIndex < tombstones.size()
+                || products.size() == limit || tombstones.size() == limit;
+
+        List<ProductView> updated = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        latest.forEach((barcode, product) -> {
+            if (product != null) {
+                updated.add(product);
+            } else {
+                deleted.add(barcode);
+            }
+        });
+
+        // once everything before the bound has been handed out the client can continue from the bound itself
+        ChangePosition position = hasMore ? last : ChangePosition.before(bound);
+        return new ProductChanges(updated, deleted, new ChangesToken(position, now).encode(), hasMore);
+    }
+
+    /**
+     * Drops tombstones past the retention. Clients holding an older token get a 410 and must resync from scratch.
+     */
+    @Scheduled(cron = "${products.changes.tombstone-prune-cron:0 0 3 * * *}")
+    @Transactional
+    public void pruneTombstones() {
+        int pruned = tombstoneRepository.deleteOlderThan(productRepository.currentTimestamp().minus(tombstoneRetention));
+        log.info("Pruned {} product tombstones", pruned);
+    }
+}
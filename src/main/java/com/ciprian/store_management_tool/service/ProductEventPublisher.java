@@ -1,21 +1,59 @@
 package com.ciprian.store_management_tool.service;
 
-import com.ciprian.store_management_tool.dto.ProductCreatedEvent;
+import com.ciprian.store_management_tool.dto.ProductEvent;
+import com.ciprian.store_management_tool.model.OutboxEvent;
+import com.ciprian.store_management_tool.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes product events to the outbox table in the caller's transaction. {@link OutboxRelay} sends them to Kafka
+ * once that transaction has committed. The services report the change itself to {@link CatalogChanges}.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductEventPublisher {
 
-    private final KafkaTemplate<String, ProductCreatedEvent> kafkaTemplate;
-    private static final String TOPIC = "product-events";
+    static final String TOPIC = "product-events";
+
+    static final Map<String, Class<?>> EVENT_TYPES = Arrays.stream(ProductEvent.class.getPermittedSubclasses())
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Timed(value = "products.outbox.write", extraTags = {"operation", "publish"})
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(ProductEvent event) {
+        log.debug("Adding event to the outbox: {}", event);
+        outboxRepository.saveAll(List.of(toOutboxEvent(event)));
+    }
+
+    @Timed(value = "products.outbox.write", extraTags = {"operation", "publishAll"})
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<? extends ProductEvent> events) {
+        log.debug("Adding {} events to the outbox", events.size());
+        outboxRepository.saveAll(events.stream().map(this::toOutboxEvent).toList());
+    }
 
-    public void publish(ProductCreatedEvent event) {
-        log.info("Publishing event to Kafka: {}", event);
-        kafkaTemplate.send(TOPIC, event);
+    private OutboxEvent toOutboxEvent(ProductEvent event) {
+        try {
+            return OutboxEvent.of(event.barcode(), event.getClass().getSimpleName(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event " + event, e);
+        }
     }
 }
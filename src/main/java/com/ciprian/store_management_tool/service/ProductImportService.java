@@ -0,0 +1,119 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.ProductImportResult;
+import com.ciprian.store_management_tool.dto.ProductImportSummary;
+import com.ciprian.store_management_tool.model.Product;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class ProductImportService {
+
+    private final ProductService productService;
+
+    private final ObjectReader ndjsonReader;
+
+    private final ObjectReader csvReader;
+
+    private final int batchSize;
+
+    public ProductImportService(ProductService productService, ObjectMapper objectMapper,
+                                @Value("${products.import.batch-size:1000}") int batchSize) {
+        this.productService = productService;
+        this.ndjsonReader = objectMapper.readerFor(Product.class);
+        this.csvReader = new CsvMapper().readerFor(Product.class).with(CsvSchema.emptySchema().withHeader());
+        this.batchSize = batchSize;
+    }
+
+    public ProductImportSummary importAll(List<Product> products) {
+        List<ProductImportResult> results = new ArrayList<>(products.size());
+        for (int from = 0; from < products.size(); from += batchSize) {
+            List<Product> chunk = products.subList(from, Math.min(from + batchSize, products.size()));
+            saveChunk(chunk, from + 1, results::add);
+        }
+        return ProductImportSummary.of(results);
+    }
+
+    public void importNdjson(InputStream input, Consumer<ProductImportResult> sink) throws IOException {
+        importRows(ndjsonReader.readValues(input), sink);
+    }
+
+    public void importCsv(InputStream input, Consumer<ProductImportResult> sink) throws IOException {
+        importRows(csvReader.readValues(input), sink);
+    }
+
+    /**
+     * Reads the upload row by row and saves it in chunks of {@code batchSize}, so only one chunk is held in memory.
+     * A row that cannot be parsed is reported as invalid and ends the import, since the rest of the input
+     * cannot be trusted to line up with row numbers anymore.
+     */
+    private void importRows(MappingIterator<Product> rows, Consumer<ProductImportResult> sink) throws IOException {
+        List<Product> chunk = new ArrayList<>(batchSize);
+        int firstRow = 1;
+
+        try (rows) {
+            while (true) {
+                Product product;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    product = rows.nextValue();
+                } catch (IOException e) {
+                    int failedRow = firstRow + chunk.size();
+                    log.warn("Stopping product import at unreadable row {}: {}", failedRow, e.getMessage());
+                    flush(chunk, firstRow, sink);
+                    sink.accept(ProductImportResult.invalid(failedRow, null, "Unreadable row: " + e.getMessage()));
+                    return;
+                }
+
+                chunk.add(product);
+                if (chunk.size() == batchSize) {
+                    flush(chunk, firstRow, sink);
+                    firstRow += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        flush(chunk, firstRow, sink);
+    }
+
+    private void flush(List<Product> chunk, int firstRow, Consumer<ProductImportResult> sink) {
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, firstRow, sink);
+        }
+    }
+
+    /**
+     * Saves one chunk in its own transaction. A database error rolls back only that chunk: its rows are reported
+     * as failed and the import carries on, so the results of the chunks before it still reach the client.
+     */
+    private void saveChunk(List<Product> chunk, int firstRow, Consumer<ProductImportResult> sink) {
+        List<ProductImportResult> results;
+        try {
+            results = productService.saveAll(chunk, firstRow);
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Failed to save products of rows {} to {}", firstRow, firstRow + chunk.size() - 1, e);
+            for (int i = 0; i < chunk.size(); i++) {
+                sink.accept(ProductImportResult.failed(firstRow + i, chunk.get(i).getBarcode()));
+            }
+            return;
+        }
+        results.forEach(sink);
+    }
+}
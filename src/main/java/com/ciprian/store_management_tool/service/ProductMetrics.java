@@ -0,0 +1,50 @@
+package com.ciprian.store_management_tool.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Outcomes of product operations that the {@value #SERVICE_TIMER} timers do not show. Not-founds are tagged by the
+ * operation that missed; lookups answered from the product cache are not counted.
+ */
+@Component
+public class ProductMetrics {
+
+    /**
+     * Timer of every {@link ProductService} and {@link StoreInventoryService} method, tagged by {@code operation}.
+     */
+    public static final String SERVICE_TIMER = "products.service";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter duplicates;
+
+    private final Counter priceUpdates;
+
+    public ProductMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.duplicates = Counter.builder("products.duplicates")
+                .description("Products rejected because the barcode already exists")
+                .register(meterRegistry);
+        this.priceUpdates = Counter.builder("products.price.updates")
+                .description("Applied price updates")
+                .register(meterRegistry);
+    }
+
+    public void duplicates(long count) {
+        duplicates.increment(count);
+    }
+
+    public void priceUpdated() {
+        priceUpdates.increment();
+    }
+
+    public void notFound(String operation) {
+        Counter.builder("products.not.found")
+                .description("Operations on a barcode that does not exist")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+}
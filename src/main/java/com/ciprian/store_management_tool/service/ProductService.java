@@ -1,18 +1,51 @@
 package com.ciprian.store_management_tool.service;
 
+import com.ciprian.store_management_tool.configuration.CacheConfig;
+import com.ciprian.store_management_tool.configuration.ReadFromPrimary;
 import com.ciprian.store_management_tool.dto.ProductCreatedEvent;
+import com.ciprian.store_management_tool.dto.ProductDeletedEvent;
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductPriceChangedEvent;
+import com.ciprian.store_management_tool.dto.ProductImportResult;
+import com.ciprian.store_management_tool.dto.ProductQuantityChangedEvent;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.dto.StockMovement;
 import com.ciprian.store_management_tool.exception.DuplicateProductException;
+import com.ciprian.store_management_tool.exception.InsufficientStockException;
+import com.ciprian.store_management_tool.exception.InvalidStockMovementException;
+import com.ciprian.store_management_tool.exception.ProductNotFoundException;
+import com.ciprian.store_management_tool.exception.ProductVersionMismatchException;
 import com.ciprian.store_management_tool.model.Product;
 import com.ciprian.store_management_tool.repository.ProductRepository;
+import com.ciprian.store_management_tool.repository.ProductTombstoneRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -21,45 +54,321 @@ public class ProductService {
 
     private final ProductRepository repository;
 
+    private final ProductTombstoneRepository tombstoneRepository;
+
+    private final CacheManager cacheManager;
+
+    private final ProductMetrics metrics;
+
+    private final CatalogChanges catalogChanges;
+
     @Autowired
     private ProductEventPublisher eventPublisher;
 
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "save"})
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#product.barcode")
     public Product save(Product product) {
         log.info("Saving product with barcode: {}", product.getBarcode());
 
-        if (repository.existsById(product.getBarcode())) {
+        product.setCreatedAt(LocalDateTime.now());
+        product.setVersion(0L);
+        if (!repository.insert(product)) {
             log.warn("Attempt to create duplicate product with barcode: {}", product.getBarcode());
+            metrics.duplicates(1);
             throw new DuplicateProductException(product.getBarcode());
         }
 
-        product.setCreatedAt(LocalDateTime.now());
-        Product saved = repository.save(product);
-        eventPublisher.publish(new ProductCreatedEvent(saved.getBarcode(), saved.getName(), saved.getPrice()));
-        return saved;
+        eventPublisher.publish(ProductCreatedEvent.of(product));
+        catalogChanges.changedAfterCommit();
+        return product;
+    }
+
+    /**
+     * Creates a chunk of products with one duplicate lookup, one JDBC batch insert and one batch of events.
+     * Rows that are invalid or already exist are reported instead of failing the whole chunk.
+     *
+     * @param firstRow row number of the first product, used to number the results
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "saveAll"})
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public List<ProductImportResult> saveAll(List<Product> products, int firstRow) {
+        log.info("Saving {} products starting at row {}", products.size(), firstRow);
+
+        Set<String> barcodes = products.stream()
+                .map(Product::getBarcode)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> existing = barcodes.isEmpty() ? Set.of() : repository.findExistingBarcodes(barcodes);
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> seen = new HashSet<>();
+        long duplicates = 0;
+        List<Product> toInsert = new ArrayList<>(products.size());
+        List<ProductImportResult> results = new ArrayList<>(products.size());
+
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            int row = firstRow + i;
+            String barcode = product.getBarcode();
+
+            if (barcode == null || barcode.isBlank() || product.getName() == null || product.getPrice() == null) {
+                results.add(ProductImportResult.invalid(row, barcode, "barcode, name and price are required"));
+            } else if (existing.contains(barcode) || !seen.add(barcode)) {
+                results.add(ProductImportResult.duplicate(row, barcode));
+                duplicates++;
+            } else {
+                product.setCreatedAt(now);
+                product.setVersion(0L);
+                toInsert.add(product);
+                results.add(ProductImportResult.created(row, barcode));
+            }
+        }
+
+        if (duplicates > 0) {
+            metrics.duplicates(duplicates);
+        }
+        if (!toInsert.isEmpty()) {
+            repository.insertAll(toInsert);
+            eventPublisher.publishAll(toInsert.stream()
+                    .map(ProductCreatedEvent::of)
+                    .toList());
+            catalogChanges.changedAfterCommit();
+        }
+        return results;
+    }
+
+    // unknown barcodes are cached too, as null entries; misses read the primary, because a lagging replica would put
+    // the old product back into the cache for every client right after it was evicted
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#barcode")
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "findById"})
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public Optional<ProductView> findById(String barcode) {
+        log.debug("Returning product with barcode: {}", barcode);
+        Optional<ProductView> product = repository.findViewByBarcode(barcode);
+        if (product.isEmpty()) {
+            metrics.notFound("findById");
+        }
+        return product;
+    }
+
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "findPage"})
+    @Transactional(readOnly = true)
+    public List<ProductView> findPage(String afterBarcode, int size) {
+        log.debug("Showing {} products after barcode: {}", size, afterBarcode);
+        return repository.findViewsByBarcodeGreaterThanOrderByBarcodeAsc(
+                afterBarcode != null ? afterBarcode : "", Limit.of(size));
     }
 
-    public Optional<Product> findById(String barcode) {
-        log.info("Returning product with barcode: {}", barcode);
-        return repository.findById(barcode);
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "findFilteredPage"})
+    @Transactional(readOnly = true)
+    public List<ProductView> findPage(ProductFilter filter, ProductSort sort, String cursor, int size) {
+        if (filter.isEmpty() && sort.equals(ProductSort.DEFAULT)) {
+            return findPage(cursor, size);
+        }
+        log.debug("Showing {} products matching {} sorted by {} after cursor: {}", size, filter, sort, cursor);
+        return repository.findPage(filter, sort, sort.position(cursor), size);
     }
 
-    public List<Product> findAll() {
-        log.info("Showing all products");
-        return repository.findAll();
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "streamAll"})
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProductView> action) {
+        log.debug("Streaming all products");
+        repository.streamAll(action);
     }
 
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "deleteById"})
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#barcode")
     public void deleteById(String barcode) {
         log.info("Deleting product with barcode: {}", barcode);
-        repository.deleteById(barcode);
+        if (repository.deleteByBarcode(barcode) > 0) {
+            tombstoneRepository.save(barcode);
+            eventPublisher.publish(ProductDeletedEvent.of(barcode));
+            catalogChanges.changedAfterCommit();
+        } else {
+            metrics.notFound("deleteById");
+        }
     }
 
-    public Optional<Product> updatePrice(String barcode, BigDecimal newPrice) {
+    /**
+     * Updates the price in a single statement.
+     *
+     * @param expectedVersion version the client last saw, or null to update unconditionally
+     * @throws ProductVersionMismatchException if the product exists but is at another version
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "updatePrice"})
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#barcode")
+    public Optional<Product> updatePrice(String barcode, BigDecimal newPrice, Long expectedVersion) {
         log.info("Updating price for product with barcode: {}", barcode);
-        return repository.findById(barcode)
-                .map(product -> {
-                    product.setPrice(newPrice);
-                    return repository.save(product);
-                });
+        Optional<Product> updated = repository.updatePrice(barcode, newPrice, expectedVersion);
+        updated.ifPresent(product -> {
+            eventPublisher.publish(ProductPriceChangedEvent.of(product));
+            catalogChanges.changedAfterCommit();
+            metrics.priceUpdated();
+        });
+
+        if (updated.isEmpty() && expectedVersion != null && repository.existsById(barcode)) {
+            log.warn("Rejected price update for product with barcode {} at stale version {}", barcode, expectedVersion);
+            throw new ProductVersionMismatchException(barcode, String.valueOf(expectedVersion));
+        }
+        if (updated.isEmpty()) {
+            metrics.notFound("updatePrice");
+        }
+        return updated;
+    }
+
+    /**
+     * Adds the delta to the stock in a single guarded statement, so concurrent sales never read-modify-write.
+     *
+     * @throws InvalidStockMovementException if the delta is beyond {@link StockMovement#MAX_DELTA}
+     * @throws InsufficientStockException    if the product exists but the stock would go below zero
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "adjustStock"})
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#barcode")
+    public Optional<Product> adjustStock(String barcode, int delta) {
+        checkMovement(barcode, delta);
+        log.debug("Adjusting stock of product with barcode {} by {}", barcode, delta);
+        Optional<Product> updated = repository.adjustQuantity(barcode, delta);
+        updated.ifPresent(product -> {
+            eventPublisher.publish(ProductQuantityChangedEvent.of(product.getBarcode(), product.getQuantity()));
+            catalogChanges.changedAfterCommit();
+        });
+
+        if (updated.isEmpty() && repository.existsById(barcode)) {
+            log.warn("Rejected stock movement of {} for product with barcode {}", delta, barcode);
+            throw new InsufficientStockException(barcode, delta);
+        }
+        if (updated.isEmpty()) {
+            metrics.notFound("adjustStock");
+        }
+        return updated;
+    }
+
+    /**
+     * Applies a whole basket with one JDBC batch: either every movement is applied or none is.
+     * Movements are merged per barcode and applied in barcode order, so baskets sharing products
+     * always lock their rows in the same order and cannot deadlock each other.
+     *
+     * @throws InvalidStockMovementException if a barcode is missing or a merged delta is out of range
+     * @throws ProductNotFoundException      if a barcode is unknown
+     * @throws InsufficientStockException    if a product does not have enough stock
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "adjustStockBatch"})
+    @Transactional
+    public List<Product> adjustStock(List<StockMovement> movements) {
+        List<StockMovement> merged = mergeByBarcode(movements);
+        log.debug("Adjusting stock of {} products", merged.size());
+        if (merged.isEmpty()) {
+            return List.of();
+        }
+
+        int[] counts = repository.adjustQuantities(merged);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                StockMovement rejected = merged.get(i);
+                if (!repository.existsById(rejected.barcode())) {
+                    metrics.notFound("adjustStockBatch");
+                    throw new ProductNotFoundException(rejected.barcode());
+                }
+                log.warn("Rejected basket, not enough stock for product with barcode {}", rejected.barcode());
+                throw new InsufficientStockException(rejected.barcode(), rejected.delta());
+            }
+        }
+        return publishQuantityChanges(merged);
+    }
+
+    /**
+     * Applies stock movements that already happened, such as the deferred sales of the {@link StockAccumulator}.
+     * They are not checked against the stock: a quantity that would go negative is set to zero instead.
+     * Movements for unknown barcodes are dropped.
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "applyStockDeltas"})
+    @Transactional
+    public List<Product> applyStockDeltas(List<StockMovement> movements) {
+        List<StockMovement> merged = mergeByBarcode(movements);
+        log.debug("Applying stock deltas for {} products", merged.size());
+        if (merged.isEmpty()) {
+            return List.of();
+        }
+
+        int[] counts = repository.applyQuantityDeltas(merged);
+        List<StockMovement> applied = new ArrayList<>(merged.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                log.warn("Dropped stock delta of {} for unknown barcode {}", merged.get(i).delta(), merged.get(i).barcode());
+            } else {
+                applied.add(merged.get(i));
+            }
+        }
+        return applied.isEmpty() ? List.of() : publishQuantityChanges(applied);
+    }
+
+    private List<Product> publishQuantityChanges(List<StockMovement> movements) {
+        List<String> barcodes = movements.stream().map(StockMovement::barcode).toList();
+        List<Product> updated = repository.findAllById(barcodes).stream()
+                .sorted(Comparator.comparing(Product::getBarcode))
+                .toList();
+
+        eventPublisher.publishAll(updated.stream()
+                .map(product -> ProductQuantityChangedEvent.of(product.getBarcode(), product.getQuantity()))
+                .toList());
+        catalogChanges.changedAfterCommit();
+        evictAfterCommit(barcodes);
+        return updated;
+    }
+
+    private static List<StockMovement> mergeByBarcode(List<StockMovement> movements) {
+        TreeMap<String, Long> deltas = new TreeMap<>();
+        for (StockMovement movement : movements) {
+            checkMovement(movement.barcode(), movement.delta());
+            deltas.merge(movement.barcode(), (long) movement.delta(), Long::sum);
+        }
+        return deltas.entrySet().stream()
+                .map(entry -> {
+                    checkMovement(entry.getKey(), entry.getValue());
+                    return new StockMovement(entry.getKey(), entry.getValue().intValue());
+                })
+                .toList();
+    }
+
+    /**
+     * Rejects a movement without barcode or beyond {@link StockMovement#MAX_DELTA} with a 400, before the database
+     * would fail on an INT overflow.
+     */
+    static void checkMovement(String barcode, long delta) {
+        if (barcode == null || barcode.isBlank()) {
+            throw new InvalidStockMovementException("the barcode is missing");
+        }
+        if (Math.abs(delta) > StockMovement.MAX_DELTA) {
+            throw new InvalidStockMovementException(
+                    "the stock of " + barcode + " can change by at most " + StockMovement.MAX_DELTA + " at once");
+        }
+    }
+
+    /**
+     * Evicts the given barcodes once the transaction commits, like {@link CacheEvict} does for single products,
+     * without dropping the whole cache for every basket.
+     */
+    private void evictAfterCommit(Collection<String> barcodes) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            barcodes.forEach(cache::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                barcodes.forEach(cache::evict);
+            }
+        });
     }
 
 }
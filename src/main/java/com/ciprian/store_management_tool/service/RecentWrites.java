@@ -0,0 +1,59 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.configuration.ReplicaProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Clients that changed products within the {@link ReplicaProperties#staleness()} window, during which a replica
+ * may not have their change yet. Their reads go to the primary until then. Clients are told apart by the name of
+ * the authenticated user; changes without one, such as the stock accumulator flush, are not tracked.
+ */
+@Component
+@ConditionalOnProperty(name = "products.replicas.enabled", havingValue = "true")
+public class RecentWrites {
+
+    private final Cache<String, Boolean> writers;
+
+    public RecentWrites(ReplicaProperties properties) {
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(properties.staleness())
+                .build();
+    }
+
+    /**
+     * Remembers the current client once the current transaction commits, or right away without a transaction.
+     */
+    public void recordAfterCommit() {
+        String client = currentClient();
+        if (client == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writers.put(client, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writers.put(client, Boolean.TRUE);
+            }
+        });
+    }
+
+    public boolean wroteRecently() {
+        String client = currentClient();
+        return client != null && writers.getIfPresent(client) != null;
+    }
+
+    private static String currentClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
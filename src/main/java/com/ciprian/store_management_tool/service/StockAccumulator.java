@@ -0,0 +1,111 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.model.Product;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Collects deferred stock movements in memory and applies the net delta of each product periodically,
+ * so thousands of concurrent sales of a hot product cost one row update per flush instead of one each.
+ * <p>
+ * Each product has its own {@link LongAdder}, which spreads concurrent updates over several cells instead of
+ * contending on one value. Deferred movements skip the stock guard and are lost if the instance dies before
+ * the next flush, so they are meant for sales that already happened at the till. Movements of a barcode that no
+ * product matches are dropped by the flush, as {@link ProductService#applyStockDeltas} does.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "products.stock.accumulator.enabled", havingValue = "true")
+public class StockAccumulator {
+
+    // barcodes that no product matched are removed after their flush, so the map only keeps products of the catalog
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private final ProductService productService;
+
+    public void add(String barcode, int delta) {
+        ProductService.checkMovement(barcode, delta);
+        add(barcode, (long) delta);
+    }
+
+    private void add(String barcode, long delta) {
+        LongAdder adder = pending.computeIfAbsent(barcode, key -> new LongAdder());
+        adder.add(delta);
+        // a flush removed the adder meanwhile; whatever it did not take back is moved to the current one
+        if (pending.get(barcode) != adder) {
+            long late = adder.sumThenReset();
+            if (late != 0) {
+                add(barcode, late);
+            }
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${products.stock.accumulator.flush-interval-ms:100}")
+    public void flush() {
+        List<StockMovement> movements = new ArrayList<>();
+        // sumThenReset hands every concurrent add either to this flush or to the next one
+        pending.forEach((barcode, adder) -> {
+            long delta = adder.sumThenReset();
+            // a net delta beyond the movement limit is applied in steps, the rest waits for the next flush
+            int step = (int) Math.clamp(delta, -StockMovement.MAX_DELTA, StockMovement.MAX_DELTA);
+            if (step != delta) {
+                adder.add(delta - step);
+            }
+            if (step != 0) {
+                movements.add(new StockMovement(barcode, step));
+            }
+        });
+        if (movements.isEmpty()) {
+            return;
+        }
+
+        List<Product> updated;
+        try {
+            updated = productService.applyStockDeltas(movements);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} stock deltas, keeping them for the next flush", movements.size(), e);
+            movements.forEach(movement -> add(movement.barcode(), movement.delta()));
+            return;
+        }
+
+        // the service dropped the deltas of unknown barcodes, forget them instead of keeping an entry per typo
+        Set<String> applied = updated.stream().map(Product::getBarcode).collect(Collectors.toSet());
+        movements.stream()
+                .map(StockMovement::barcode)
+                .filter(barcode -> !applied.contains(barcode))
+                .forEach(this::forget);
+    }
+
+    /**
+     * Removes the adder of the barcode unless a movement arrived since it was drained. A movement added while the
+     * adder is being removed is taken back here, or by {@link #add} once it sees the adder is gone.
+     */
+    private void forget(String barcode) {
+        LongAdder adder = pending.get(barcode);
+        if (adder == null || adder.sum() != 0 || !pending.remove(barcode, adder)) {
+            return;
+        }
+        long late = adder.sumThenReset();
+        if (late != 0) {
+            add(barcode, late);
+        }
+    }
+
+    int pendingBarcodes() {
+        return pending.size();
+    }
+}
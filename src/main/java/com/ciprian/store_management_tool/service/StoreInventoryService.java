@@ -0,0 +1,128 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.dto.StoreStock;
+import com.ciprian.store_management_tool.dto.StoreStockQuery;
+import com.ciprian.store_management_tool.exception.InsufficientStockException;
+import com.ciprian.store_management_tool.exception.InvalidProductQueryException;
+import com.ciprian.store_management_tool.exception.InvalidStockMovementException;
+import com.ciprian.store_management_tool.exception.InvalidStoreStockException;
+import com.ciprian.store_management_tool.repository.StoreInventoryRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Stock and local prices of the products in each store of the chain. This is separate from the product's own
+ * quantity and price, which stay the central stock and the default price. Store stock is not cached and does not
+ * move the catalog ETag.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StoreInventoryService {
+
+    private final StoreInventoryRepository repository;
+
+    private final ProductMetrics metrics;
+
+    private final ObjectProvider<RecentWrites> recentWrites;
+
+    @Value("${products.stores.max-query-size:1000}")
+    private int maxQuerySize;
+
+    /**
+     * The stores that list the product, in store order.
+     *
+     * @param inStock only the stores that have it in stock
+     * @return empty if the barcode is unknown
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "findStores"})
+    @Transactional(readOnly = true)
+    public Optional<List<StoreStock>> findStores(String barcode, boolean inStock) {
+        log.debug("Finding stores of product with barcode: {}", barcode);
+        Optional<List<StoreStock>> stores = repository.findByBarcode(barcode, inStock);
+        if (stores.isEmpty()) {
+            metrics.notFound("findStores");
+        }
+        return stores;
+    }
+
+    /**
+     * The stock of every requested product in the requested stores, in barcode and store order. Products that no
+     * requested store lists, or unknown barcodes, have no entry.
+     *
+     * @throws InvalidProductQueryException without barcodes, or with more barcodes or stores than
+     *                                      {@code products.stores.max-query-size}
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "findStock"})
+    @Transactional(readOnly = true)
+    public List<StoreStock> findStock(StoreStockQuery query) {
+        Set<String> barcodes = query.barcodes() != null ? new LinkedHashSet<>(query.barcodes()) : Set.of();
+        Set<String> storeIds = query.storeIds() != null ? new LinkedHashSet<>(query.storeIds()) : Set.of();
+        if (barcodes.isEmpty()) {
+            throw new InvalidProductQueryException("at least one barcode is required");
+        }
+        if (barcodes.size() > maxQuerySize || storeIds.size() > maxQuerySize) {
+            throw new InvalidProductQueryException("at most " + maxQuerySize + " barcodes and stores can be queried at once");
+        }
+        log.debug("Finding stock of {} products in {} stores", barcodes.size(), storeIds.isEmpty() ? "all" : storeIds.size());
+        return repository.findByBarcodes(barcodes, storeIds, query.inStock());
+    }
+
+    /**
+     * Sets the stock and local price of the product in the store, which starts listing it if it did not yet.
+     *
+     * @param price local price, or null to sell at the product price
+     * @return empty if the barcode is unknown
+     * @throws InvalidStoreStockException if the quantity or the price is negative
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "saveStoreStock"})
+    @Transactional
+    public Optional<StoreStock> save(String barcode, String storeId, int quantity, BigDecimal price) {
+        if (quantity < 0 || price != null && price.signum() < 0) {
+            throw new InvalidStoreStockException("quantity and price cannot be negative");
+        }
+        log.debug("Setting stock of product with barcode {} in store {} to {}", barcode, storeId, quantity);
+        if (!repository.save(barcode, storeId, quantity, price)) {
+            metrics.notFound("saveStoreStock");
+            return Optional.empty();
+        }
+        recentWrites.ifAvailable(RecentWrites::recordAfterCommit);
+        return repository.findOne(barcode, storeId);
+    }
+
+    /**
+     * Adds the delta to the stock of the product in the store, unless that would take it below zero.
+     *
+     * @return empty if the store does not list the product
+     * @throws InvalidStockMovementException if the delta is beyond {@link StockMovement#MAX_DELTA}
+     * @throws InsufficientStockException    if the store does not have enough stock
+     */
+    @Timed(value = ProductMetrics.SERVICE_TIMER, extraTags = {"operation", "adjustStoreStock"})
+    @Transactional
+    public Optional<StoreStock> adjustStock(String barcode, String storeId, int delta) {
+        ProductService.checkMovement(barcode, delta);
+        log.debug("Adjusting stock of product with barcode {} in store {} by {}", barcode, storeId, delta);
+        if (!repository.adjustQuantity(barcode, storeId, delta)) {
+            if (repository.exists(barcode, storeId)) {
+                log.warn("Rejected stock movement of {} for product with barcode {} in store {}", delta, barcode, storeId);
+                throw new InsufficientStockException(barcode, delta);
+            }
+            metrics.notFound("adjustStoreStock");
+            return Optional.empty();
+        }
+        recentWrites.ifAvailable(RecentWrites::recordAfterCommit);
+        return repository.findOne(barcode, storeId);
+    }
+}
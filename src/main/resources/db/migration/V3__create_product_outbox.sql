@@ -0,0 +1,7 @@
+CREATE TABLE product_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_key VARCHAR(32) NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
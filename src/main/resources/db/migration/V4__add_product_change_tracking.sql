@@ -0,0 +1,13 @@
+ALTER TABLE products ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE products SET updated_at = created_at WHERE created_at IS NOT NULL;
+
+CREATE INDEX idx_products_updated_at ON products (updated_at, barcode);
+
+CREATE TABLE product_tombstones (
+    id BIGSERIAL PRIMARY KEY,
+    barcode VARCHAR(32) NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_product_tombstones_deleted_at ON product_tombstones (deleted_at, barcode);
@@ -0,0 +1,8 @@
+CREATE INDEX idx_products_name ON products (name, barcode);
+
+CREATE INDEX idx_products_price ON products (price, barcode);
+
+-- no index on quantity, not even a partial one: every stock movement changes it and would write a new entry to it.
+-- Low-stock reports scan instead.
+
+CREATE INDEX idx_products_created_at ON products (created_at, barcode);
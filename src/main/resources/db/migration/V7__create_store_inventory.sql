@@ -0,0 +1,8 @@
+CREATE TABLE store_inventory (
+    barcode VARCHAR(32) NOT NULL REFERENCES products (barcode) ON DELETE CASCADE,
+    store_id VARCHAR(32) NOT NULL,
+    quantity INT NOT NULL,
+    price DECIMAL(10, 2),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (barcode, store_id)
+);
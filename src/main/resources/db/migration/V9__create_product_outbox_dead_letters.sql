@@ -0,0 +1,10 @@
+-- outbox rows the relay cannot read back, moved aside so they do not block the events behind them
+CREATE TABLE product_outbox_dead_letters (
+    id BIGINT PRIMARY KEY,
+    event_key VARCHAR(32) NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    failed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    reason TEXT NOT NULL
+);
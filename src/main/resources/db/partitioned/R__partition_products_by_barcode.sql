@@ -0,0 +1,66 @@
+-- Only in the classpath with the partitioned profile. Moves the products into ${product_partitions} hash partitions
+-- on the barcode; the rows are copied under an exclusive lock, so plan a maintenance window for large catalogs.
+-- Repeatable, so Flyway runs it after the versioned migrations whenever the profile is switched on, whatever version
+-- the database is at. A table that is already partitioned is left as it is. The columns, indexes and triggers are
+-- copied from the current table, and the foreign keys that reference it (store_inventory) are moved over.
+DO $$
+DECLARE
+    ddl TEXT;
+    indexes TEXT[];
+    triggers TEXT[];
+    foreign_keys TEXT[];
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'products'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+
+    LOCK TABLE products IN ACCESS EXCLUSIVE MODE;
+
+    SELECT coalesce(array_agg(pg_get_indexdef(indexrelid)), '{}') INTO indexes
+    FROM pg_index
+    WHERE indrelid = 'products'::regclass AND NOT indisprimary;
+
+    SELECT coalesce(array_agg(pg_get_triggerdef(oid)), '{}') INTO triggers
+    FROM pg_trigger
+    WHERE tgrelid = 'products'::regclass AND NOT tgisinternal;
+
+    SELECT coalesce(array_agg(format('ALTER TABLE %s ADD CONSTRAINT %I %s',
+                                     conrelid::regclass, conname, pg_get_constraintdef(oid))), '{}')
+    INTO foreign_keys
+    FROM pg_constraint
+    WHERE confrelid = 'products'::regclass AND contype = 'f' AND conparentid = 0;
+
+    FOR ddl IN
+        SELECT format('ALTER TABLE %s DROP CONSTRAINT %I', conrelid::regclass, conname)
+        FROM pg_constraint
+        WHERE confrelid = 'products'::regclass AND contype = 'f' AND conparentid = 0
+    LOOP
+        EXECUTE ddl;
+    END LOOP;
+
+    ALTER TABLE products RENAME TO products_heap;
+    ALTER TABLE products_heap RENAME CONSTRAINT products_pkey TO products_heap_pkey;
+
+    CREATE TABLE products (
+        LIKE products_heap INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+        CONSTRAINT products_pkey PRIMARY KEY (barcode)
+    ) PARTITION BY HASH (barcode);
+
+    FOR i IN 0..${product_partitions} - 1 LOOP
+        EXECUTE format('CREATE TABLE products_p%s PARTITION OF products FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                       i, ${product_partitions}, i);
+    END LOOP;
+
+    -- before the triggers are back, so the rows keep the transaction that last changed them
+    INSERT INTO products SELECT * FROM products_heap;
+
+    -- frees the index names
+    DROP TABLE products_heap;
+
+    FOREACH ddl IN ARRAY indexes || triggers || foreign_keys LOOP
+        EXECUTE ddl;
+    END LOOP;
+END
+$$;
+
+ANALYZE products;
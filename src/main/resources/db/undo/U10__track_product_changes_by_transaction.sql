@@ -0,0 +1,7 @@
+DROP INDEX IF EXISTS idx_product_tombstones_change_xid;
+ALTER TABLE product_tombstones DROP COLUMN IF EXISTS change_xid;
+DROP INDEX IF EXISTS idx_products_change_xid;
+CREATE INDEX IF NOT EXISTS idx_products_updated_at ON products (updated_at, barcode);
+DROP TRIGGER IF EXISTS products_set_change_xid ON products;
+ALTER TABLE products DROP COLUMN IF EXISTS change_xid;
+DROP FUNCTION IF EXISTS set_change_xid();
@@ -0,0 +1,59 @@
+-- Reverts R__partition_products_by_barcode, run by hand. Switch the partitioned profile off first: the history row of
+-- the repeatable migration is deleted at the end, so with the profile on the next start would partition again.
+DO $$
+DECLARE
+    ddl TEXT;
+    indexes TEXT[];
+    triggers TEXT[];
+    foreign_keys TEXT[];
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'products'::regclass) <> 'p' THEN
+        RETURN;
+    END IF;
+
+    LOCK TABLE products IN ACCESS EXCLUSIVE MODE;
+
+    -- the definitions of partitioned indexes read "ON ONLY products"
+    SELECT coalesce(array_agg(replace(pg_get_indexdef(indexrelid), ' ON ONLY ', ' ON ')), '{}') INTO indexes
+    FROM pg_index
+    WHERE indrelid = 'products'::regclass AND NOT indisprimary;
+
+    SELECT coalesce(array_agg(pg_get_triggerdef(oid)), '{}') INTO triggers
+    FROM pg_trigger
+    WHERE tgrelid = 'products'::regclass AND NOT tgisinternal;
+
+    SELECT coalesce(array_agg(format('ALTER TABLE %s ADD CONSTRAINT %I %s',
+                                     conrelid::regclass, conname, pg_get_constraintdef(oid))), '{}')
+    INTO foreign_keys
+    FROM pg_constraint
+    WHERE confrelid = 'products'::regclass AND contype = 'f' AND conparentid = 0;
+
+    FOR ddl IN
+        SELECT format('ALTER TABLE %s DROP CONSTRAINT %I', conrelid::regclass, conname)
+        FROM pg_constraint
+        WHERE confrelid = 'products'::regclass AND contype = 'f' AND conparentid = 0
+    LOOP
+        EXECUTE ddl;
+    END LOOP;
+
+    ALTER TABLE products RENAME TO products_partitioned;
+    ALTER TABLE products_partitioned RENAME CONSTRAINT products_pkey TO products_partitioned_pkey;
+
+    CREATE TABLE products (
+        LIKE products_partitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+        CONSTRAINT products_pkey PRIMARY KEY (barcode)
+    );
+
+    INSERT INTO products SELECT * FROM products_partitioned;
+
+    DROP TABLE products_partitioned;
+
+    FOREACH ddl IN ARRAY indexes || triggers || foreign_keys LOOP
+        EXECUTE ddl;
+    END LOOP;
+END
+$$;
+
+ANALYZE products;
+
+DELETE FROM flyway_schema_history WHERE script = 'R__partition_products_by_barcode.sql';
@@ -0,0 +1,33 @@
+package com.ciprian.store_management_tool.config;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Runs the tests against the same PostgreSQL version as docker-compose, with the schema created by the Flyway
+ * migrations. The container is started once per application context and shared by the contexts Spring caches.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresTestConfig {
+
+    @Bean
+    @ServiceConnection
+    public PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>("postgres:14.7");
+    }
+
+    // the reactive stack builds its own R2DBC pool from these properties instead of a ConnectionFactory bean
+    @Bean
+    public DynamicPropertyRegistrar reactivePostgresProperties(PostgreSQLContainer<?> postgresContainer) {
+        return registry -> {
+            registry.add("products.reactive.r2dbc.url", () -> "r2dbc:postgresql://" + postgresContainer.getHost()
+                    + ":" + postgresContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)
+                    + "/" + postgresContainer.getDatabaseName());
+            registry.add("products.reactive.r2dbc.username", postgresContainer::getUsername);
+            registry.add("products.reactive.r2dbc.password", postgresContainer::getPassword);
+        };
+    }
+}
@@ -2,11 +2,13 @@ package com.ciprian.store_management_tool.config;
 
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 
 import static org.mockito.Mockito.mock;
 
 @TestConfiguration
+@Import(PostgresTestConfig.class)
 public class TestConfig {
 
     // this is for convenience
@@ -0,0 +1,110 @@
+package com.ciprian.store_management_tool.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtAuthenticationManagerTest {
+
+    @Mock
+    private JwtDecoder jwtDecoder;
+
+    private CachingJwtAuthenticationManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new CachingJwtAuthenticationManager(
+                jwtDecoder, new JwtAuthenticationConverter(), new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void authenticate_WithTheSameTokenTwice_ShouldDecodeOnce() {
+        // Arrange
+        when(jwtDecoder.decode("token")).thenReturn(jwt("token", Instant.now().plusSeconds(300)));
+
+        // Act
+        Authentication first = manager.authenticate(new BearerTokenAuthenticationToken("token"));
+        Authentication second = manager.authenticate(new BearerTokenAuthenticationToken("token"));
+
+        // Assert
+        verify(jwtDecoder, times(1)).decode("token");
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("user");
+        assertThat(second.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void authenticate_ShouldCopyTheRequestDetails() {
+        // Arrange
+        when(jwtDecoder.decode("token")).thenReturn(jwt("token", Instant.now().plusSeconds(300)));
+        BearerTokenAuthenticationToken first = new BearerTokenAuthenticationToken("token");
+        first.setDetails("first request");
+        BearerTokenAuthenticationToken second = new BearerTokenAuthenticationToken("token");
+        second.setDetails("second request");
+
+        // Act
+        manager.authenticate(first);
+        Authentication result = manager.authenticate(second);
+
+        // Assert
+        assertThat(result.getDetails()).isEqualTo("second request");
+    }
+
+    @Test
+    void authenticate_WithAnExpiredToken_ShouldNotKeepIt() {
+        // Arrange
+        when(jwtDecoder.decode("token")).thenReturn(jwt("token", Instant.now().minusSeconds(1)));
+
+        // Act
+        manager.authenticate(new BearerTokenAuthenticationToken("token"));
+        manager.authenticate(new BearerTokenAuthenticationToken("token"));
+
+        // Assert
+        verify(jwtDecoder, times(2)).decode("token");
+        assertThat(manager.cachedCount()).isZero();
+    }
+
+    @Test
+    void authenticate_WhenTheTokenIsInvalid_ShouldNotCacheTheFailure() {
+        // Arrange
+        when(jwtDecoder.decode("token"))
+                .thenThrow(new BadJwtException("invalid signature"))
+                .thenReturn(jwt("token", Instant.now().plusSeconds(300)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> manager.authenticate(new BearerTokenAuthenticationToken("token")))
+                .hasMessageContaining("invalid signature");
+        assertThat(manager.authenticate(new BearerTokenAuthenticationToken("token")).isAuthenticated()).isTrue();
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user")
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .claim("realm_access", Map.of("roles", List.of("ROLE_ADMIN")))
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.ciprian.store_management_tool.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith({MockitoExtension.class, OutputCaptureExtension.class})
+class JwksPrefetcherTest {
+
+    @Mock
+    private JwtDecoder jwtDecoder;
+
+    @Test
+    void run_WhenTheKeySetHasNoKeyForTheToken_ShouldReportThePrefetch(CapturedOutput output) {
+        // Arrange
+        when(jwtDecoder.decode(JwksPrefetcher.PREFETCH_TOKEN))
+                .thenThrow(new BadJwtException("Signed JWT rejected: Another algorithm expected, or no matching key(s) found"));
+
+        // Act
+        new JwksPrefetcher(jwtDecoder).run(new DefaultApplicationArguments());
+
+        // Assert
+        assertThat(output).contains("Prefetched the JWT signing keys");
+    }
+
+    @Test
+    void run_WhenTheKeySetIsUnreachable_ShouldWarnInsteadOfReportingThePrefetch(CapturedOutput output) {
+        // Arrange
+        JwtDecoder unreachable = NimbusJwtDecoder.withJwkSetUri("http://localhost:1/realms/store/certs").build();
+
+        // Act
+        new JwksPrefetcher(unreachable).run(new DefaultApplicationArguments());
+
+        // Assert
+        assertThat(output).contains("Could not prefetch the JWT signing keys")
+                .doesNotContain("Prefetched the JWT signing keys");
+    }
+}
@@ -0,0 +1,160 @@
+package com.ciprian.store_management_tool.configuration;
+
+import com.ciprian.store_management_tool.service.RecentWrites;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Mock
+    private RecentWrites recentWrites;
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReplicaDataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource primary = new JdbcDataSource();
+        primary.setURL(PRIMARY_URL);
+        replicaDataSource = new ReplicaDataSource(primary, properties(REPLICA_URL), recentWrites, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaDataSource.close();
+    }
+
+    @Test
+    void getConnection_WhenTheReplicaIsInSync_ShouldUseTheReplica() throws SQLException {
+        // Arrange
+        replicaDataSource.checkLag();
+
+        // Act & Assert
+        assertThat(url()).startsWith("jdbc:h2:mem:replica");
+    }
+
+    @Test
+    void getConnection_BeforeTheFirstLagCheck_ShouldUseThePrimary() throws SQLException {
+        // Act & Assert
+        assertThat(url()).startsWith("jdbc:h2:mem:primary");
+        assertThat(meterRegistry.counter("products.replica.fallbacks", "reason", "no-replica").count()).isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_AfterAWriteOfTheSameClient_ShouldUseThePrimary() throws SQLException {
+        // Arrange
+        replicaDataSource.checkLag();
+        when(recentWrites.wroteRecently()).thenReturn(true);
+
+        // Act & Assert
+        assertThat(url()).startsWith("jdbc:h2:mem:primary");
+        assertThat(meterRegistry.counter("products.replica.fallbacks", "reason", "read-your-writes").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_InAReadFromPrimaryMethod_ShouldUseThePrimary() throws Throwable {
+        // Arrange
+        replicaDataSource.checkLag();
+        when(joinPoint.proceed()).thenAnswer(invocation -> url());
+
+        // Act
+        Object url = new ReadFromPrimaryAspect().readFromPrimary(joinPoint);
+
+        // Assert
+        assertThat(url).asString().startsWith("jdbc:h2:mem:primary");
+        assertThat(meterRegistry.counter("products.replica.fallbacks", "reason", "read-from-primary").count())
+                .isEqualTo(1);
+        assertThat(url()).startsWith("jdbc:h2:mem:replica");
+    }
+
+    @Test
+    void checkLag_WhenTheReplicaIsUnreachable_ShouldFallBackToThePrimary() throws SQLException {
+        // Arrange
+        replicaDataSource.close();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JdbcDataSource primary = new JdbcDataSource();
+        primary.setURL(PRIMARY_URL);
+        replicaDataSource = new ReplicaDataSource(primary,
+                properties("jdbc:h2:tcp://localhost:1/missing"), recentWrites, registry);
+
+        // Act
+        replicaDataSource.checkLag();
+
+        // Assert
+        assertThat(url()).startsWith("jdbc:h2:mem:primary");
+        assertThat(registry.get("products.replica.lag").gauge().value()).isEqualTo(-1);
+    }
+
+    @Test
+    void lag_WhenTheReplicaStoppedReceivingWal_ShouldGrowWithThePrimary() {
+        // Arrange
+        ReplicaDataSource.ReplayTracker tracker = new ReplicaDataSource.ReplayTracker();
+        assertThat(tracker.lag(100, 100L, 0)).isZero();
+
+        // Act: the primary moves on, the replica stays at the last position it received and replayed
+        long afterOneCheck = tracker.lag(200, 100L, 250);
+        long afterFiveChecks = tracker.lag(600, 100L, 1250);
+
+        // Assert
+        assertThat(afterOneCheck).isEqualTo(250);
+        assertThat(afterFiveChecks).isEqualTo(1250);
+    }
+
+    @Test
+    void lag_WhenTheReplicaCatchesUpWithAnEarlierCheck_ShouldCountFromThatCheck() {
+        // Arrange
+        ReplicaDataSource.ReplayTracker tracker = new ReplicaDataSource.ReplayTracker();
+        tracker.lag(100, 100L, 0);
+        tracker.lag(200, 100L, 250);
+
+        // Act
+        long lag = tracker.lag(300, 200L, 500);
+
+        // Assert
+        assertThat(lag).isEqualTo(250);
+        assertThat(tracker.lag(300, 300L, 750)).isZero();
+    }
+
+    @Test
+    void lag_BeforeTheReplicaReplayedAnyCheck_ShouldBeUnknown() {
+        // Arrange
+        ReplicaDataSource.ReplayTracker tracker = new ReplicaDataSource.ReplayTracker();
+
+        // Act & Assert
+        assertThat(tracker.lag(200, 100L, 0)).isEqualTo(-1);
+    }
+
+    private String url() throws SQLException {
+        try (Connection connection = replicaDataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private static ReplicaProperties properties(String url) {
+        return new ReplicaProperties(true, 1000, 250, 2, List.of(new ReplicaProperties.Replica(url, "sa", "")));
+    }
+}
@@ -0,0 +1,109 @@
+package com.ciprian.store_management_tool.configuration;
+
+import com.ciprian.store_management_tool.config.TestConfig;
+import org.apache.catalina.Context;
+import org.apache.catalina.Manager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that requests of every outcome leave no HTTP session behind: no cookie is set and Tomcat's session manager
+ * has created none. It counts sessions only; the heap a session would keep per request is measured by
+ * {@code SessionHeapBenchmark}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class StatelessSecurityTest {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private ServletWebServerApplicationContext applicationContext;
+
+    @BeforeEach
+    void setUp() {
+        for (String role : List.of("ROLE_USER", "ROLE_ADMIN")) {
+            when(jwtDecoder.decode(role)).thenReturn(Jwt.withTokenValue(role)
+                    .header("alg", "RS256")
+                    .subject(role.toLowerCase())
+                    .issuedAt(Instant.now())
+                    .expiresAt(Instant.now().plusSeconds(300))
+                    .claim("realm_access", Map.of("roles", List.of(role)))
+                    .build());
+        }
+    }
+
+    @Test
+    void requests_ShouldNeverCreateAnHttpSession() {
+        // Arrange
+        Manager sessions = sessionManager();
+        long createdBefore = sessions.getSessionCounter();
+
+        // Act
+        for (int i = 0; i < REQUESTS; i++) {
+            assertNoSessionCookie(get("/products", "ROLE_USER"), HttpStatus.OK);
+            assertNoSessionCookie(get("/products/unknown", "ROLE_ADMIN"), HttpStatus.NOT_FOUND);
+            assertNoSessionCookie(delete("/products/unknown", "ROLE_USER"), HttpStatus.FORBIDDEN);
+            assertNoSessionCookie(get("/products", null), HttpStatus.UNAUTHORIZED);
+        }
+
+        // Assert
+        assertThat(sessions.getActiveSessions()).isZero();
+        assertThat(sessions.getSessionCounter()).isEqualTo(createdBefore);
+    }
+
+    private ResponseEntity<String> get(String path, String token) {
+        return restTemplate.exchange(path, HttpMethod.GET, withToken(token), String.class);
+    }
+
+    private ResponseEntity<String> delete(String path, String token) {
+        return restTemplate.exchange(path, HttpMethod.DELETE, withToken(token), String.class);
+    }
+
+    private static HttpEntity<Void> withToken(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return new HttpEntity<>(headers);
+    }
+
+    private static void assertNoSessionCookie(ResponseEntity<String> response, HttpStatus expectedStatus) {
+        assertThat(response.getStatusCode()).isEqualTo(expectedStatus);
+        assertThat(response.getHeaders().get(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    private Manager sessionManager() {
+        TomcatWebServer webServer = (TomcatWebServer) applicationContext.getWebServer();
+        Context context = (Context) webServer.getTomcat().getHost().findChildren()[0];
+        return context.getManager();
+    }
+}
@@ -0,0 +1,48 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.ciprian.store_management_tool.exception.StoreExceptionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void handleConnectionUnavailable_WhenThePoolTimedOut_ShouldAnswerBusyWithoutTheDriverMessage() {
+        // Arrange
+        CannotGetJdbcConnectionException ex = new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection",
+                new SQLTransientConnectionException(
+                        "HikariPool-1 - Connection is not available, request timed out after 2001ms."));
+
+        // Act
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> response = handler.handleConnectionUnavailable(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getBody().getCode()).isEqualTo(StoreExceptionType.SERVICE_BUSY.name());
+        assertThat(response.getBody().getMessage()).isEqualTo(StoreExceptionType.SERVICE_BUSY.getMessage());
+    }
+
+    @Test
+    void handleConnectionUnavailable_WhenTheDatabaseRefusedTheConnection_ShouldRethrow() {
+        // Arrange
+        SQLException refused = new SQLException("Connection to localhost:5432 refused", "08001");
+        CannotGetJdbcConnectionException ex = new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection",
+                new SQLTransientConnectionException(
+                        "HikariPool-1 - Connection is not available, request timed out after 2001ms.", "08001", refused));
+
+        // Act & Assert
+        assertThatThrownBy(() -> handler.handleConnectionUnavailable(ex)).isSameAs(ex);
+    }
+}
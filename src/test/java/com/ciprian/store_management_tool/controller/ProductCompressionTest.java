@@ -0,0 +1,113 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks against the embedded Tomcat that product responses above {@code server.compression.min-response-size} are
+ * gzipped. The JDK client is used as it does not decompress, so the Content-Encoding header stays visible.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class ProductCompressionTest {
+
+    private static final String TOKEN = "ROLE_USER";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM product_outbox");
+        // 100 products make a page of about 10KB, well above the 2KB threshold
+        productRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> Product.builder()
+                        .barcode("%08d".formatted(i))
+                        .name("Compressed Product " + i)
+                        .price(new BigDecimal("19.99"))
+                        .quantity(10)
+                        .build())
+                .toList());
+
+        when(jwtDecoder.decode(TOKEN)).thenReturn(Jwt.withTokenValue(TOKEN)
+                .header("alg", "RS256")
+                .subject("user")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .claim("realm_access", Map.of("roles", List.of(TOKEN)))
+                .build());
+    }
+
+    @Test
+    void getAll_WhenPageIsAboveTheThreshold_ShouldBeGzipped() throws Exception {
+        // Act
+        HttpResponse<byte[]> response = get("/products?size=100");
+
+        // Assert
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(response.headers().firstValue(HttpHeaders.ETAG)).hasValueSatisfying(eTag ->
+                assertThat(eTag).startsWith("W/"));
+        assertThat(response.headers().allValues(HttpHeaders.VARY)).anySatisfy(vary ->
+                assertThat(vary).contains(HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void get_WhenProductIsBelowTheThreshold_ShouldNotBeGzipped() throws Exception {
+        // Act
+        HttpResponse<byte[]> response = get("/products/00000001");
+
+        // Assert
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(response.headers().firstValue(HttpHeaders.ETAG)).hasValue("W/\"0\"");
+    }
+
+    private HttpResponse<byte[]> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/store-api/v1" + path))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
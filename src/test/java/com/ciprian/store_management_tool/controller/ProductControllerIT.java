@@ -1,32 +1,44 @@
 package com.ciprian.store_management_tool.controller;
 
 import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.configuration.CacheConfig;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.dto.StockMovementRequest;
 import com.ciprian.store_management_tool.dto.UpdatePriceRequest;
 import com.ciprian.store_management_tool.model.Product;
 import com.ciprian.store_management_tool.repository.ProductRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -44,12 +56,21 @@ class ProductControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Product product1;
     private Product product2;
 
     @BeforeEach
     void setUp() {
         productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM product_outbox");
+        jdbcTemplate.update("DELETE FROM product_tombstones");
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
 
         product1 = Product.builder()
                 .barcode("123456789")
@@ -81,6 +102,8 @@ class ProductControllerIT {
                 .andExpect(jsonPath("$.createdAt").isNotEmpty());
 
         assertThat(productRepository.findById(product1.getBarcode())).isPresent();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT event_key FROM product_outbox", String.class)).isEqualTo(product1.getBarcode());
     }
 
     @Test
@@ -118,6 +141,76 @@ class ProductControllerIT {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void get_AfterDelete_ShouldNotReturnCachedProduct() throws Exception {
+        // Arrange
+        productRepository.save(product1);
+        mockMvc.perform(get("/products/{barcode}", product1.getBarcode()))
+                .andExpect(status().isOk());
+
+        // Act
+        mockMvc.perform(delete("/products/{barcode}", product1.getBarcode()))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        mockMvc.perform(get("/products/{barcode}", product1.getBarcode()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void get_WhenProductIsCached_ShouldNotHitDatabaseAgain() throws Exception {
+        // Arrange
+        productRepository.save(product1);
+        mockMvc.perform(get("/products/{barcode}", product1.getBarcode()))
+                .andExpect(status().isOk());
+        productRepository.deleteById(product1.getBarcode());
+
+        // Act & Assert
+        mockMvc.perform(get("/products/{barcode}", product1.getBarcode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.barcode").value(product1.getBarcode()));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void get_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        productRepository.save(product1);
+
+        // Act & Assert
+        mockMvc.perform(get("/products/{barcode}", product1.getBarcode()).header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"0\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void getAll_WithCatalogETag_ShouldReturnNotModifiedUntilTheCatalogChanges() throws Exception {
+        // Arrange
+        productRepository.saveAll(List.of(product1, product2));
+        String eTag = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/products").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/products/{barcode}/price", product1.getBarcode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdatePriceRequest(new BigDecimal("24.99")))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/products").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].price").value(24.99));
+    }
+
     @Test
     @WithMockUser(username = "user", roles = "USER")
     void getAll_ShouldReturnAllProducts() throws Exception {
@@ -132,6 +225,234 @@ class ProductControllerIT {
                 .andExpect(jsonPath("$[1].barcode").value(product2.getBarcode()));
     }
 
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void getAll_WithPageSize_ShouldReturnNextCursor() throws Exception {
+        // Arrange
+        productRepository.saveAll(List.of(product1, product2));
+
+        // Act & Assert
+        mockMvc.perform(get("/products").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].barcode").value(product1.getBarcode()))
+                .andExpect(header().string("X-Next-Cursor", product1.getBarcode()));
+
+        mockMvc.perform(get("/products").param("size", "1").param("after", product1.getBarcode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].barcode").value(product2.getBarcode()));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void getAll_WithFiltersAndSort_ShouldFilterInDatabaseAndPageByCursor() throws Exception {
+        // Arrange
+        Product product3 = Product.builder()
+                .barcode("555555555")
+                .name("Test 100% Juice")
+                .price(new BigDecimal("4.99"))
+                .quantity(2)
+                .createdAt(LocalDateTime.now())
+                .build();
+        productRepository.saveAll(List.of(product1, product2, product3));
+
+        // Act & Assert
+        mockMvc.perform(get("/products").param("name", "product").param("minPrice", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].barcode").value(product2.getBarcode()));
+
+        mockMvc.perform(get("/products").param("name", "100%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].barcode").value(product3.getBarcode()));
+
+        mockMvc.perform(get("/products").param("quantityBelow", "6").param("namePrefix", "TEST"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        MvcResult firstPage = mockMvc.perform(get("/products").param("sort", "price,desc").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].barcode").value(product2.getBarcode()))
+                .andExpect(jsonPath("$[1].barcode").value(product1.getBarcode()))
+                .andReturn();
+        String cursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/products").param("sort", "price,desc").param("size", "2").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].barcode").value(product3.getBarcode()));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void getAll_WithUnknownSortField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products").param("sort", "color"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_PRODUCT_QUERY"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void getAll_WithCborAccept_ShouldReturnCbor() throws Exception {
+        // Arrange
+        productRepository.saveAll(List.of(product1, product2));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/products").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Assert
+        ProductView[] products = new CBORMapper().findAndRegisterModules()
+                .readValue(result.getResponse().getContentAsByteArray(), ProductView[].class);
+        assertThat(products).extracting(ProductView::barcode)
+                .containsExactly(product1.getBarcode(), product2.getBarcode());
+        assertThat(products[0].price()).isEqualByComparingTo(product1.getPrice());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void get_WithFields_ShouldOnlyWriteRequestedFields() throws Exception {
+        // Arrange
+        productRepository.saveAll(List.of(product1, product2));
+
+        // Act & Assert
+        mockMvc.perform(get("/products").param("fields", "barcode,price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].barcode").value(product1.getBarcode()))
+                .andExpect(jsonPath("$[0].price").value(19.99))
+                .andExpect(jsonPath("$[0].name").doesNotExist())
+                .andExpect(jsonPath("$[0].createdAt").doesNotExist());
+
+        mockMvc.perform(get("/products/{barcode}", product2.getBarcode()).param("fields", "quantity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(product2.getQuantity()))
+                .andExpect(jsonPath("$.barcode").doesNotExist());
+
+        mockMvc.perform(get("/products").param("fields", "barcode,color"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_PRODUCT_QUERY"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void getAll_WithNdjsonAccept_ShouldStreamProducts() throws Exception {
+        // Arrange
+        productRepository.saveAll(List.of(product1, product2));
+
+        // Act
+        MvcResult asyncResult = mockMvc.perform(get("/products").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(0), Product.class).getBarcode()).isEqualTo(product1.getBarcode());
+        assertThat(objectMapper.readValue(lines.get(1), Product.class).getBarcode()).isEqualTo(product2.getBarcode());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void getChanges_ShouldReturnOnlyChangesSinceToken() throws Exception {
+        // Arrange
+        productRepository.save(product1);
+        productRepository.save(product2);
+        MvcResult initial = mockMvc.perform(get("/products/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated.length()").value(2))
+                .andExpect(jsonPath("$.deleted.length()").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn();
+        String token = objectMapper.readTree(initial.getResponse().getContentAsString()).get("nextToken").asText();
+
+        mockMvc.perform(delete("/products/{barcode}", product1.getBarcode()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(patch("/products/{barcode}/price", product2.getBarcode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdatePriceRequest(new BigDecimal("9.99")))))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(get("/products/changes").param("since", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated.length()").value(1))
+                .andExpect(jsonPath("$.updated[0].barcode").value(product2.getBarcode()))
+                .andExpect(jsonPath("$.updated[0].price").value(9.99))
+                .andExpect(jsonPath("$.deleted[0]").value(product1.getBarcode()));
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void getChanges_WithMalformedToken_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/products/changes").param("since", "not-a-token"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("CHANGES_TOKEN_INVALID"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void adjustStock_ShouldChangeQuantityAndRejectOverselling() throws Exception {
+        // Arrange
+        productRepository.save(product1);
+
+        // Act & Assert
+        mockMvc.perform(post("/products/{barcode}/stock", product1.getBarcode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockMovementRequest(-4))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(6));
+
+        mockMvc.perform(post("/products/{barcode}/stock", product1.getBarcode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockMovementRequest(-7))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("INSUFFICIENT_STOCK"));
+
+        assertThat(productRepository.findById(product1.getBarcode()).orElseThrow().getQuantity()).isEqualTo(6);
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void adjustStockBatch_WhenOneProductIsShort_ShouldApplyNothing() throws Exception {
+        // Arrange
+        productRepository.save(product1);
+        productRepository.save(product2);
+        List<StockMovement> basket = List.of(
+                new StockMovement(product1.getBarcode(), -1),
+                new StockMovement(product2.getBarcode(), -6));
+
+        // Act & Assert
+        mockMvc.perform(post("/products/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(basket)))
+                .andExpect(status().isConflict());
+
+        assertThat(productRepository.findById(product1.getBarcode()).orElseThrow().getQuantity()).isEqualTo(10);
+        assertThat(productRepository.findById(product2.getBarcode()).orElseThrow().getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void adjustStock_WithUserRole_ShouldReturnForbidden() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/products/{barcode}/stock", product1.getBarcode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new StockMovementRequest(-1))))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = "ADMIN")
     void delete_WithAdminRole_ShouldDeleteProduct() throws Exception {
@@ -179,6 +500,42 @@ class ProductControllerIT {
         assertThat(updatedProduct.getPrice()).isEqualByComparingTo(newPrice);
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void updatePrice_WithMatchingIfMatch_ShouldUpdateAndBumpVersion() throws Exception {
+        // Arrange
+        productRepository.save(product1);
+        UpdatePriceRequest request = new UpdatePriceRequest(new BigDecimal("24.99"));
+
+        // Act & Assert
+        mockMvc.perform(patch("/products/{barcode}/price", product1.getBarcode())
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void updatePrice_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // Arrange
+        productRepository.save(product1);
+        UpdatePriceRequest request = new UpdatePriceRequest(new BigDecimal("24.99"));
+
+        // Act & Assert
+        mockMvc.perform(patch("/products/{barcode}/price", product1.getBarcode())
+                .header("If-Match", "\"7\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.code").value("PRODUCT_VERSION_MISMATCH"));
+
+        Product unchanged = productRepository.findById(product1.getBarcode()).orElseThrow();
+        assertThat(unchanged.getPrice()).isEqualByComparingTo(product1.getPrice());
+    }
+
     @Test
     @WithMockUser(username = "user", roles = "USER")
     void updatePrice_WithUserRole_ShouldReturnForbidden() throws Exception {
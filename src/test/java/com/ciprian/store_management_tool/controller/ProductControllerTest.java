@@ -1,16 +1,34 @@
 package com.ciprian.store_management_tool.controller;
 
+import com.ciprian.store_management_tool.dto.ProductChanges;
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductImportResult;
+import com.ciprian.store_management_tool.dto.ProductImportSummary;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.dto.StockMovementRequest;
 import com.ciprian.store_management_tool.dto.UpdatePriceRequest;
+import com.ciprian.store_management_tool.exception.InvalidProductQueryException;
+import com.ciprian.store_management_tool.exception.ProductVersionMismatchException;
 import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.service.CatalogVersion;
+import com.ciprian.store_management_tool.service.ProductChangesService;
+import com.ciprian.store_management_tool.service.ProductImportService;
 import com.ciprian.store_management_tool.service.ProductService;
+import com.ciprian.store_management_tool.service.StockAccumulator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,8 +37,11 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,14 +50,31 @@ class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductImportService productImportService;
+
+    @Mock
+    private ProductChangesService productChangesService;
+
+    @Mock
+    private ObjectProvider<StockAccumulator> stockAccumulatorProvider;
+
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
     @InjectMocks
     private ProductController controller;
 
     private Product product1;
     private Product product2;
+    private ProductView view1;
+    private ProductView view2;
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(controller, "defaultPageSize", 100);
+        ReflectionTestUtils.setField(controller, "maxPageSize", 1000);
+
         LocalDateTime fixedTime = LocalDateTime.of(2025, 7, 26, 10, 0);
 
         product1 = Product.builder()
@@ -54,6 +92,9 @@ class ProductControllerTest {
                 .quantity(5)
                 .createdAt(fixedTime)
                 .build();
+
+        view1 = new ProductView("123456789", "Test Product 1", new BigDecimal("19.99"), 10, fixedTime, fixedTime, 0L);
+        view2 = new ProductView("987654321", "Test Product 2", new BigDecimal("29.99"), 5, fixedTime, fixedTime, 0L);
     }
 
     @Test
@@ -70,17 +111,35 @@ class ProductControllerTest {
         verify(productService).save(product1);
     }
 
+    @Test
+    void createBatch_ShouldReturnImportSummary() {
+        // Arrange
+        ProductImportSummary summary = ProductImportSummary.of(List.of(
+                ProductImportResult.created(1, product1.getBarcode()),
+                ProductImportResult.duplicate(2, product2.getBarcode())));
+        when(productImportService.importAll(List.of(product1, product2))).thenReturn(summary);
+
+        // Act
+        ResponseEntity<ProductImportSummary> response = controller.createBatch(List.of(product1, product2));
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().created()).isEqualTo(1);
+        assertThat(response.getBody().failed()).isEqualTo(1);
+        verify(productImportService).importAll(List.of(product1, product2));
+    }
+
     @Test
     void get_WhenProductExists_ShouldReturnProduct() {
         // Arrange
-        when(productService.findById("123456789")).thenReturn(Optional.of(product1));
+        when(productService.findById("123456789")).thenReturn(Optional.of(view1));
 
         // Act
-        ResponseEntity<Product> response = controller.get("123456789");
+        ResponseEntity<ProductView> response = controller.get("123456789");
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isEqualTo(product1);
+        assertThat(response.getBody()).isEqualTo(view1);
         verify(productService).findById("123456789");
     }
 
@@ -90,7 +149,7 @@ class ProductControllerTest {
         when(productService.findById("nonexistent")).thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<Product> response = controller.get("nonexistent");
+        ResponseEntity<ProductView> response = controller.get("nonexistent");
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
@@ -99,18 +158,165 @@ class ProductControllerTest {
     }
 
     @Test
-    void getAll_ShouldReturnAllProducts() {
+    void getAll_WhenPageIsNotFull_ShouldReturnProductsWithoutCursor() {
+        // Arrange
+        List<ProductView> products = Arrays.asList(view1, view2);
+        when(productService.findPage(ProductFilter.NONE, ProductSort.DEFAULT, null, 100)).thenReturn(products);
+
+        // Act
+        ResponseEntity<List<ProductView>> response = controller.getAll(null, null, null, ProductFilter.NONE, null);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(view1, view2);
+        assertThat(response.getHeaders().containsKey(ProductHeaders.NEXT_CURSOR_HEADER)).isFalse();
+        verify(productService).findPage(ProductFilter.NONE, ProductSort.DEFAULT, null, 100);
+    }
+
+    @Test
+    void getAll_WhenPageIsFull_ShouldReturnNextCursor() {
+        // Arrange
+        List<ProductView> products = Arrays.asList(view1, view2);
+        when(productService.findPage(ProductFilter.NONE, ProductSort.DEFAULT, "100000000", 2)).thenReturn(products);
+
+        // Act
+        ResponseEntity<List<ProductView>> response = controller.getAll("100000000", 2, null, ProductFilter.NONE, null);
+
+        // Assert
+        assertThat(response.getBody()).containsExactly(view1, view2);
+        assertThat(response.getHeaders().getFirst(ProductHeaders.NEXT_CURSOR_HEADER))
+                .isEqualTo(view2.barcode());
+    }
+
+    @Test
+    void getAll_WhenSizeExceedsMaximum_ShouldClampPageSize() {
+        // Arrange
+        when(productService.findPage(ProductFilter.NONE, ProductSort.DEFAULT, null, 1000)).thenReturn(List.of());
+
+        // Act
+        controller.getAll(null, 50_000, null, ProductFilter.NONE, null);
+
+        // Assert
+        verify(productService).findPage(ProductFilter.NONE, ProductSort.DEFAULT, null, 1000);
+    }
+
+    @Test
+    void getAll_WithFilterAndSort_ShouldReturnEncodedCursor() {
         // Arrange
-        List<Product> products = Arrays.asList(product1, product2);
-        when(productService.findAll()).thenReturn(products);
+        ProductFilter filter = new ProductFilter("milk", null, null, new BigDecimal("50"), null, null);
+        ProductSort sort = new ProductSort(ProductSort.Field.PRICE, true);
+        when(productService.findPage(filter, sort, null, 2)).thenReturn(List.of(view2, view1));
 
         // Act
-        List<Product> result = controller.getAll();
+        ResponseEntity<List<ProductView>> response = controller.getAll(null, 2, "price,desc", filter, null);
 
         // Assert
-        assertThat(result).hasSize(2);
-        assertThat(result).containsExactly(product1, product2);
-        verify(productService).findAll();
+        String cursor = response.getHeaders().getFirst(ProductHeaders.NEXT_CURSOR_HEADER);
+        assertThat(sort.position(cursor)).isEqualTo(new ProductSort.Position(new BigDecimal("19.99"), "123456789"));
+    }
+
+    @Test
+    void getAll_ShouldReturnCatalogVersionAsETag() {
+        // Arrange
+        when(productService.findPage(ProductFilter.NONE, ProductSort.DEFAULT, null, 100)).thenReturn(List.of(view1));
+
+        // Act
+        ResponseEntity<List<ProductView>> response = controller.getAll(null, null, null, ProductFilter.NONE, null);
+
+        // Assert
+        assertThat(response.getHeaders().getETag()).isEqualTo(catalogVersion.eTag()).startsWith("W/");
+        assertThat(response.getHeaders().getVary()).containsExactly(HttpHeaders.ACCEPT);
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+    }
+
+    @Test
+    void getAll_WhenCatalogETagMatches_ShouldReturnNotModifiedWithoutQuerying() {
+        // Act
+        ResponseEntity<List<ProductView>> response =
+                controller.getAll(null, null, null, ProductFilter.NONE, "\"other\", " + catalogVersion.eTag());
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void getAll_AfterACatalogChange_ShouldIgnoreTheOldETag() {
+        // Arrange
+        String oldETag = catalogVersion.eTag();
+        catalogVersion.increment();
+        when(productService.findPage(ProductFilter.NONE, ProductSort.DEFAULT, null, 100)).thenReturn(List.of(view1));
+
+        // Act
+        ResponseEntity<List<ProductView>> response = controller.getAll(null, null, null, ProductFilter.NONE, oldETag);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(oldETag);
+    }
+
+    @Test
+    void getAll_WithUnknownSortField_ShouldThrowInvalidProductQuery() {
+        // Act & Assert
+        assertThatThrownBy(() -> controller.getAll(null, null, "color", ProductFilter.NONE, null))
+                .isInstanceOf(InvalidProductQueryException.class);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void getChanges_ShouldReturnChangesSinceToken() {
+        // Arrange
+        ProductChanges changes = new ProductChanges(List.of(view1), List.of("987654321"), "next", false);
+        when(productChangesService.changesSince("token", 100)).thenReturn(changes);
+
+        // Act
+        ResponseEntity<ProductChanges> response = controller.getChanges("token", null);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(changes);
+    }
+
+    @Test
+    void adjustStock_ShouldReturnUpdatedProduct() {
+        // Arrange
+        when(productService.adjustStock("123456789", -2)).thenReturn(Optional.of(product1));
+
+        // Act
+        ResponseEntity<Product> response = controller.adjustStock("123456789", new StockMovementRequest(-2), false);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(product1);
+    }
+
+    @Test
+    void adjustStock_WhenDeferredAndAccumulatorEnabled_ShouldQueueAndReturnAccepted() {
+        // Arrange
+        StockAccumulator accumulator = mock(StockAccumulator.class);
+        when(stockAccumulatorProvider.getIfAvailable()).thenReturn(accumulator);
+
+        // Act
+        ResponseEntity<Product> response = controller.adjustStock("123456789", new StockMovementRequest(-2), true);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        verify(accumulator).add("123456789", -2);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void adjustStockBatch_ShouldReturnUpdatedProducts() {
+        // Arrange
+        List<StockMovement> basket = List.of(new StockMovement("123456789", -1), new StockMovement("987654321", -1));
+        when(productService.adjustStock(basket)).thenReturn(List.of(product1, product2));
+
+        // Act
+        ResponseEntity<List<Product>> response = controller.adjustStockBatch(basket);
+
+        // Assert
+        assertThat(response.getBody()).containsExactly(product1, product2);
     }
 
     @Test
@@ -139,16 +345,16 @@ class ProductControllerTest {
                 .createdAt(product1.getCreatedAt())
                 .build();
 
-        when(productService.updatePrice("123456789", newPrice)).thenReturn(Optional.of(updatedProduct));
+        when(productService.updatePrice("123456789", newPrice, null)).thenReturn(Optional.of(updatedProduct));
 
         // Act
-        ResponseEntity<Product> response = controller.updatePrice("123456789", request);
+        ResponseEntity<Product> response = controller.updatePrice("123456789", request, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(updatedProduct);
         assertThat(response.getBody().getPrice()).isEqualByComparingTo(newPrice);
-        verify(productService).updatePrice("123456789", newPrice);
+        verify(productService).updatePrice("123456789", newPrice, null);
     }
 
     @Test
@@ -157,14 +363,41 @@ class ProductControllerTest {
         BigDecimal newPrice = new BigDecimal("24.99");
         UpdatePriceRequest request = new UpdatePriceRequest(newPrice);
 
-        when(productService.updatePrice("nonexistent", newPrice)).thenReturn(Optional.empty());
+        when(productService.updatePrice("nonexistent", newPrice, null)).thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<Product> response = controller.updatePrice("nonexistent", request);
+        ResponseEntity<Product> response = controller.updatePrice("nonexistent", request, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         assertThat(response.getBody()).isNull();
-        verify(productService).updatePrice("nonexistent", newPrice);
+        verify(productService).updatePrice("nonexistent", newPrice, null);
+    }
+
+    @Test
+    void updatePrice_WithIfMatch_ShouldPassVersionAndReturnNewETag() {
+        // Arrange
+        BigDecimal newPrice = new BigDecimal("24.99");
+        Product updatedProduct = Product.builder()
+                .barcode("123456789")
+                .price(newPrice)
+                .version(4L)
+                .build();
+        when(productService.updatePrice("123456789", newPrice, 3L)).thenReturn(Optional.of(updatedProduct));
+
+        // Act
+        ResponseEntity<Product> response = controller.updatePrice("123456789", new UpdatePriceRequest(newPrice), "\"3\"");
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("W/\"4\"");
+    }
+
+    @Test
+    void updatePrice_WithUnparseableIfMatch_ShouldThrowVersionMismatch() {
+        // Act & Assert
+        assertThatThrownBy(() -> controller.updatePrice("123456789", new UpdatePriceRequest(BigDecimal.ONE), "\"abc\""))
+                .isInstanceOf(ProductVersionMismatchException.class);
+        verifyNoInteractions(productService);
     }
 }
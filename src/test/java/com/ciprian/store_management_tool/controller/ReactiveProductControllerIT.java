@@ -0,0 +1,178 @@
+package com.ciprian.store_management_tool.controller;
+
+import com.ciprian.store_management_tool.config.PostgresTestConfig;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@Import(PostgresTestConfig.class)
+@ActiveProfiles("test")
+class ReactiveProductControllerIT {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WebTestClient webTestClient;
+
+    private Product product1;
+    private Product product2;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM product_outbox");
+        webTestClient = WebTestClient.bindToApplicationContext(applicationContext)
+                .apply(springSecurity())
+                .configureClient()
+                .build();
+
+        product1 = Product.builder()
+                .barcode("123456789")
+                .name("Test Product 1")
+                .price(new BigDecimal("19.99"))
+                .quantity(10)
+                .build();
+
+        product2 = Product.builder()
+                .barcode("987654321")
+                .name("Test Product 2")
+                .price(new BigDecimal("29.99"))
+                .quantity(5)
+                .build();
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void get_WhenProductExists_ShouldReturnProductWithETag() {
+        // Arrange
+        productRepository.save(product1);
+
+        // Act & Assert
+        webTestClient.get().uri("/products/{barcode}", product1.getBarcode())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "W/\"0\"")
+                .expectBody()
+                .jsonPath("$.barcode").isEqualTo(product1.getBarcode())
+                .jsonPath("$.quantity").isEqualTo(product1.getQuantity());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void getAll_ShouldReturnPagesAndNotModifiedForTheSameCatalog() {
+        // Arrange
+        productRepository.saveAll(List.of(product1, product2));
+
+        // Act
+        WebTestClient.ResponseSpec firstPage = webTestClient.get().uri("/products?size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(ProductHeaders.NEXT_CURSOR_HEADER, product1.getBarcode());
+        String eTag = firstPage.returnResult(String.class).getResponseHeaders().getETag();
+
+        // Assert
+        webTestClient.get().uri("/products?size=1")
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void streamAll_WithFields_ShouldStreamOnlyRequestedFields() {
+        // Arrange
+        productRepository.saveAll(List.of(product1, product2));
+
+        // Act
+        List<String> lines = webTestClient.get().uri("/products?fields=barcode")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // Assert
+        assertThat(lines).containsExactly(
+                "{\"barcode\":\"" + product1.getBarcode() + "\"}",
+                "{\"barcode\":\"" + product2.getBarcode() + "\"}");
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void snapshot_ShouldNotBeServedByTheReactiveStack() {
+        // Arrange
+        product1.setBarcode("snapshot");
+        productRepository.save(product1);
+
+        // Act & Assert
+        webTestClient.get().uri("/products/snapshot")
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.post().uri("/products/snapshot")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .bodyValue(new byte[0])
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = "USER")
+    void snapshot_WithUserRole_ShouldBeForbidden() {
+        // Act & Assert
+        webTestClient.get().uri("/products/snapshot")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    void create_WithAdminRole_ShouldCreateProductAndOutboxEvent() {
+        // Act & Assert
+        webTestClient.post().uri("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(product1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.barcode").isEqualTo(product1.getBarcode());
+
+        assertThat(productRepository.findById(product1.getBarcode())).isPresent();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT event_key FROM product_outbox", String.class)).isEqualTo(product1.getBarcode());
+    }
+
+    @Test
+    void get_WithoutToken_ShouldReturnUnauthorizedWithErrorBody() {
+        // Act & Assert
+        webTestClient.get().uri("/products/{barcode}", product1.getBarcode())
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("AUTHENTICATION_REQUIRED");
+    }
+}
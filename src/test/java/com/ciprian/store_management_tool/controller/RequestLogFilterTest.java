@@ -0,0 +1,62 @@
+package com.ciprian.store_management_tool.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLogFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void doFilter_WhenFastAndNotSampled_ShouldNotQueueAnEntry() throws Exception {
+        // Arrange
+        RequestLogFilter filter = new RequestLogFilter(meterRegistry, 0, 60_000, 10);
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        // Assert
+        assertThat(filter.pending()).isEmpty();
+    }
+
+    @Test
+    void doFilter_WhenSlow_ShouldQueueAnEntryEvenIfNotSampled() throws Exception {
+        // Arrange
+        RequestLogFilter filter = new RequestLogFilter(meterRegistry, 0, 0, 10);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(404);
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/products/123"), response, new MockFilterChain());
+
+        // Assert
+        assertThat(filter.pending()).singleElement().satisfies(entry -> {
+            assertThat(entry.method()).isEqualTo("GET");
+            assertThat(entry.path()).isEqualTo("/products/123");
+            assertThat(entry.status()).isEqualTo(404);
+            assertThat(entry.slow()).isTrue();
+        });
+    }
+
+    @Test
+    void doFilter_WhenTheQueueIsFull_ShouldDropAndCountTheEntry() throws Exception {
+        // Arrange
+        RequestLogFilter filter = new RequestLogFilter(meterRegistry, 1, 60_000, 1);
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(),
+                new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/products"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        // Assert
+        assertThat(filter.pending()).hasSize(1);
+        assertThat(meterRegistry.counter("request.log.dropped").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.config.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The partitioned profile on a fresh database: the repeatable migration runs after every versioned one, including
+ * store_inventory and its foreign key to products.
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles({"test", "partitioned"})
+class PartitionedCatalogTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migration_ShouldPartitionProductsAndKeepIndexesTriggersAndForeignKeys() {
+        // Act
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = 'products'::regclass", String.class);
+        Integer partitions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'products'::regclass", Integer.class);
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes WHERE tablename = 'products' AND indexname IN "
+                        + "('idx_products_name_trgm', 'idx_products_change_xid', 'idx_products_price')", Integer.class);
+        Integer triggers = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_trigger WHERE tgrelid = 'products'::regclass AND tgname = 'products_set_change_xid'",
+                Integer.class);
+        Integer foreignKeys = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE confrelid = 'products'::regclass AND contype = 'f' "
+                        + "AND conrelid = 'store_inventory'::regclass", Integer.class);
+
+        // Assert
+        assertThat(kind).isEqualTo("p");
+        assertThat(partitions).isEqualTo(16);
+        assertThat(indexes).isEqualTo(3);
+        assertThat(triggers).isEqualTo(1);
+        assertThat(foreignKeys).isEqualTo(1);
+    }
+}
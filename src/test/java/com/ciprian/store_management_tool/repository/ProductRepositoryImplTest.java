@@ -0,0 +1,59 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.dto.ProductView;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductRepositoryImplTest {
+
+    @Test
+    void copyRow_ShouldDecodeTheProductColumns() {
+        // Arrange
+        byte[] row = "00000001\tMilk\t4.99\t12\t2024-05-01 10:15:30.123456\t3\t2024-05-02 08:00:00\n"
+                .getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        ProductView product = ProductRepositoryImpl.copyRow(row);
+
+        // Assert
+        assertThat(product).isEqualTo(new ProductView("00000001", "Milk", new BigDecimal("4.99"), 12,
+                LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000),
+                LocalDateTime.of(2024, 5, 2, 8, 0), 3L));
+    }
+
+    @Test
+    void copyRow_ShouldUnescapeTheValuesAndReadNulls() {
+        // Arrange
+        byte[] row = "00000002\tCafé\\tcrème\\\\ \\nbio\t1.00\t0\t\\N\t0\t2024-05-02 08:00:00\n"
+                .getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        ProductView product = ProductRepositoryImpl.copyRow(row);
+
+        // Assert
+        assertThat(product.name()).isEqualTo("Café\tcrème\\ \nbio");
+        assertThat(product.createdAt()).isNull();
+    }
+
+    @Test
+    void copyInput_ShouldEscapeTheValuesAndWriteNulls() {
+        // Arrange
+        List<ProductView> products = List.of(
+                new ProductView("00000001", "Milk", new BigDecimal("4.99"), 12,
+                        LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000), null, 3L),
+                new ProductView("00000002", "Café\tcrème\\ \nbio", new BigDecimal("1.00"), 0, null, null, null));
+
+        // Act
+        String input = ProductRepositoryImpl.copyInput(products);
+
+        // Assert
+        assertThat(input).isEqualTo("00000001\tMilk\t4.99\t12\t2024-05-01T10:15:30.123456\t3\n"
+                + "00000002\tCafé\\tcrème\\\\ \\nbio\t1.00\t0\t\\N\t0\n");
+    }
+}
@@ -0,0 +1,136 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hand-written statements of {@link ProductRepositoryImpl} against PostgreSQL. Each test rolls back.
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+class ProductRepositoryPostgresTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM products");
+        productRepository.insert(product("00000001", 5));
+    }
+
+    @Test
+    void updatePrice_ShouldReturnTheUpdatedRow() {
+        // Act
+        Optional<Product> updated = productRepository.updatePrice("00000001", new BigDecimal("2.49"), 0L);
+
+        // Assert
+        assertThat(updated).hasValueSatisfying(product -> {
+            assertThat(product.getPrice()).isEqualByComparingTo("2.49");
+            assertThat(product.getVersion()).isEqualTo(1L);
+        });
+    }
+
+    @Test
+    void updatePrice_WhenVersionIsStale_ShouldReturnEmpty() {
+        // Act
+        Optional<Product> updated = productRepository.updatePrice("00000001", new BigDecimal("2.49"), 7L);
+
+        // Assert
+        assertThat(updated).isEmpty();
+    }
+
+    @Test
+    void adjustQuantity_WhenStockWouldGoNegative_ShouldReturnEmpty() {
+        // Act
+        Optional<Product> oversold = productRepository.adjustQuantity("00000001", -6);
+        Optional<Product> sold = productRepository.adjustQuantity("00000001", -5);
+
+        // Assert
+        assertThat(oversold).isEmpty();
+        assertThat(sold).hasValueSatisfying(product -> assertThat(product.getQuantity()).isZero());
+    }
+
+    @Test
+    void insertAllIfAbsent_ShouldOnlyReturnTheNewBarcodes() {
+        // Arrange
+        List<ProductView> products = List.of(
+                new ProductView("00000001", "Changed", new BigDecimal("9.99"), 1, null, null, 0L),
+                new ProductView("00000002", "Bread", new BigDecimal("1.20"), 3, null, null, 0L));
+
+        // Act
+        Set<String> inserted = productRepository.insertAllIfAbsent(products);
+
+        // Assert
+        assertThat(inserted).containsExactly("00000002");
+        assertThat(productRepository.findById("00000001")).hasValueSatisfying(product ->
+                assertThat(product.getName()).isEqualTo("Product 00000001"));
+    }
+
+    @Test
+    void findPage_SortedByCreatedAt_ShouldPageThroughProductsWithoutCreationTime() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 10, 0);
+        jdbcTemplate.update("UPDATE products SET created_at = ?", now);
+        productRepository.insert(product("00000002", 1));
+        productRepository.insert(product("00000003", 1));
+        jdbcTemplate.update("UPDATE products SET created_at = NULL WHERE barcode <> '00000001'");
+        productRepository.insert(product("00000004", 1));
+        jdbcTemplate.update("UPDATE products SET created_at = ? WHERE barcode = '00000004'", now.minusDays(1));
+
+        // Act
+        List<String> ascending = pageByOne(new ProductSort(ProductSort.Field.CREATED_AT, false));
+        List<String> descending = pageByOne(new ProductSort(ProductSort.Field.CREATED_AT, true));
+
+        // Assert
+        assertThat(ascending).containsExactly("00000004", "00000001", "00000002", "00000003");
+        assertThat(descending).containsExactly("00000003", "00000002", "00000001", "00000004");
+    }
+
+    private List<String> pageByOne(ProductSort sort) {
+        List<String> barcodes = new ArrayList<>();
+        ProductSort.Position after = null;
+        List<ProductView> page;
+        while (!(page = productRepository.findPage(ProductFilter.NONE, sort, after, 1)).isEmpty()) {
+            barcodes.add(page.getFirst().barcode());
+            after = sort.position(sort.cursor(page.getFirst()));
+        }
+        return barcodes;
+    }
+
+    private static Product product(String barcode, int quantity) {
+        return Product.builder()
+                .barcode(barcode)
+                .name("Product " + barcode)
+                .price(new BigDecimal("1.99"))
+                .quantity(quantity)
+                .createdAt(LocalDateTime.now())
+                .version(0L)
+                .build();
+    }
+}
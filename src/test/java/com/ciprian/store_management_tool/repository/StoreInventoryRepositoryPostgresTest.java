@@ -0,0 +1,88 @@
+package com.ciprian.store_management_tool.repository;
+
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.dto.StoreStock;
+import com.ciprian.store_management_tool.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The upsert of {@link StoreInventoryRepository#save} against PostgreSQL. Each test rolls back.
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+class StoreInventoryRepositoryPostgresTest {
+
+    @Autowired
+    private StoreInventoryRepository storeInventoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM products");
+        productRepository.insert(Product.builder()
+                .barcode("00000001")
+                .name("Product 00000001")
+                .price(new BigDecimal("1.99"))
+                .quantity(5)
+                .createdAt(LocalDateTime.now())
+                .version(0L)
+                .build());
+    }
+
+    @Test
+    void save_WhenStoreDoesNotListTheProduct_ShouldAddIt() {
+        // Act
+        boolean saved = storeInventoryRepository.save("00000001", "store-1", 3, null);
+
+        // Assert
+        assertThat(saved).isTrue();
+        assertThat(storeInventoryRepository.findOne("00000001", "store-1")).hasValueSatisfying(stock -> {
+            assertThat(stock.quantity()).isEqualTo(3);
+            assertThat(stock.price()).isEqualByComparingTo("1.99");
+        });
+    }
+
+    @Test
+    void save_WhenStoreListsTheProduct_ShouldReplaceQuantityAndPrice() {
+        // Arrange
+        storeInventoryRepository.save("00000001", "store-1", 3, new BigDecimal("1.49"));
+
+        // Act
+        boolean saved = storeInventoryRepository.save("00000001", "store-1", 8, null);
+
+        // Assert
+        assertThat(saved).isTrue();
+        StoreStock stock = storeInventoryRepository.findOne("00000001", "store-1").orElseThrow();
+        assertThat(stock.quantity()).isEqualTo(8);
+        assertThat(stock.price()).isEqualByComparingTo("1.99");
+    }
+
+    @Test
+    void save_WhenBarcodeIsUnknown_ShouldReturnFalse() {
+        // Act
+        boolean saved = storeInventoryRepository.save("99999999", "store-1", 3, null);
+
+        // Assert
+        assertThat(saved).isFalse();
+        assertThat(storeInventoryRepository.exists("99999999", "store-1")).isFalse();
+    }
+}
@@ -0,0 +1,119 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.dto.ProductChanges;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A snapshot block commits as one transaction, and a large block can stay open for a long time. The change feed
+ * must not move past it while it is open.
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class CatalogSnapshotChangesTest {
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private ProductChangesService changesService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM product_tombstones");
+        jdbcTemplate.update("DELETE FROM product_outbox");
+    }
+
+    @Test
+    void changesSince_WhenAnImportCommitsAfterLaterChanges_ShouldStillReturnTheImportedProducts() throws Exception {
+        // Arrange
+        byte[] snapshot = snapshot(List.of(view("00000001"), view("00000002")));
+        CountDownLatch imported = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // the outer transaction keeps the import block open, like a block that takes long to load
+        CompletableFuture<Void> slowImport = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> {
+                    try {
+                        catalogSnapshotService.importFrom(new ByteArrayInputStream(snapshot), false);
+                        imported.countDown();
+                        assertThat(release.await(30, TimeUnit.SECONDS)).isTrue();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+        assertThat(imported.await(30, TimeUnit.SECONDS)).isTrue();
+
+        productService.save(product("00000003"));
+        ProductChanges before = changesService.changesSince(null, 100);
+        release.countDown();
+        slowImport.get(30, TimeUnit.SECONDS);
+
+        // Act
+        ProductChanges after = changesService.changesSince(before.nextToken(), 100);
+
+        // Assert
+        assertThat(before.updated()).isEmpty();
+        assertThat(after.updated()).extracting(ProductView::barcode)
+                .containsExactlyInAnyOrder("00000001", "00000002", "00000003");
+    }
+
+    private static byte[] snapshot(List<ProductView> products) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        CatalogSnapshotFormat.writeHeader(output);
+        CatalogSnapshotFormat.writeBlock(output, CatalogSnapshotFormat.encode(products));
+        CatalogSnapshotFormat.writeEnd(output, products.size());
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    private static ProductView view(String barcode) {
+        return new ProductView(barcode, "Product " + barcode, new BigDecimal("1.99"), 5,
+                LocalDateTime.of(2024, 5, 1, 10, 0), null, 0L);
+    }
+
+    private static Product product(String barcode) {
+        return Product.builder()
+                .barcode(barcode)
+                .name("Product " + barcode)
+                .price(new BigDecimal("1.99"))
+                .quantity(5)
+                .build();
+    }
+}
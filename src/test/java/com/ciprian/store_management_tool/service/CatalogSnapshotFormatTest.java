@@ -0,0 +1,91 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.exception.InvalidSnapshotException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotFormatTest {
+
+    private final List<ProductView> first = List.of(
+            new ProductView("00000001", "Milk", new BigDecimal("4.99"), 12,
+                    LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000), LocalDateTime.of(2024, 5, 2, 8, 0), 3L),
+            new ProductView("00000002", "Café crème", new BigDecimal("1.00"), 0,
+                    null, LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), 0L));
+
+    private final List<ProductView> second = List.of(
+            new ProductView("00000003", "Bread", new BigDecimal("2.5"), 40,
+                    LocalDateTime.of(2024, 5, 3, 7, 0), LocalDateTime.of(2024, 5, 3, 7, 0), 1L));
+
+    @Test
+    void reader_ShouldReturnTheBlocksThatWereWritten() throws IOException {
+        // Arrange
+        byte[] file = snapshot(true);
+
+        // Act
+        CatalogSnapshotFormat.Reader reader = CatalogSnapshotFormat.reader(new ByteArrayInputStream(file));
+
+        // Assert
+        assertThat(reader.nextBlock()).isEqualTo(first);
+        assertThat(reader.nextBlock()).isEqualTo(second);
+        assertThat(reader.nextBlock()).isNull();
+    }
+
+    @Test
+    void reader_WhenFileIsTruncated_ShouldThrowInvalidSnapshotException() throws IOException {
+        // Arrange
+        byte[] file = snapshot(true);
+        CatalogSnapshotFormat.Reader reader = CatalogSnapshotFormat.reader(
+                new ByteArrayInputStream(Arrays.copyOf(file, file.length - 4)));
+        reader.nextBlock();
+        reader.nextBlock();
+
+        // Act & Assert
+        assertThatThrownBy(reader::nextBlock).isInstanceOf(InvalidSnapshotException.class);
+    }
+
+    @Test
+    void reader_WhenRowCountDoesNotMatch_ShouldThrowInvalidSnapshotException() throws IOException {
+        // Arrange
+        CatalogSnapshotFormat.Reader reader = CatalogSnapshotFormat.reader(new ByteArrayInputStream(snapshot(false)));
+        reader.nextBlock();
+
+        // Act & Assert
+        assertThatThrownBy(reader::nextBlock).isInstanceOf(InvalidSnapshotException.class);
+    }
+
+    @Test
+    void reader_WhenFileIsNotASnapshot_ShouldThrowInvalidSnapshotException() {
+        // Arrange
+        ByteArrayInputStream input = new ByteArrayInputStream("barcode,name,price,quantity\n".getBytes());
+
+        // Act & Assert
+        assertThatThrownBy(() -> CatalogSnapshotFormat.reader(input)).isInstanceOf(InvalidSnapshotException.class);
+    }
+
+    /**
+     * Both blocks, or only the first one with the row count of both.
+     */
+    private byte[] snapshot(boolean complete) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        CatalogSnapshotFormat.writeHeader(output);
+        CatalogSnapshotFormat.writeBlock(output, CatalogSnapshotFormat.encode(first));
+        if (complete) {
+            CatalogSnapshotFormat.writeBlock(output, CatalogSnapshotFormat.encode(second));
+        }
+        CatalogSnapshotFormat.writeEnd(output, first.size() + second.size());
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,113 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    @Mock
+    private ProductRepository repository;
+
+    @Mock
+    private ProductEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogChanges catalogChanges;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        // one range in blocks of one product, so the queue of two blocks is full after three pages
+        snapshotService = new CatalogSnapshotService(repository, eventPublisher, catalogChanges, cacheManager,
+                transactionManager, 1, 1);
+    }
+
+    @Test
+    void exportTo_WhenARangeFailsWhileTheQueueIsFull_ShouldThrowInsteadOfWaiting() {
+        // Arrange
+        CountDownLatch failed = new CountDownLatch(1);
+        GatedOutputStream output = new GatedOutputStream(failed);
+        AtomicInteger pages = new AtomicInteger();
+        when(repository.splitBarcodes(1)).thenReturn(List.of());
+        when(repository.findRange(any(), any(), eq(1))).thenAnswer(invocation -> {
+            output.armed = true;
+            int page = pages.incrementAndGet();
+            if (page > 3) {
+                failed.countDown();
+                throw new QueryTimeoutException("canceling statement due to statement timeout");
+            }
+            return List.of(product("%08d".formatted(page)));
+        });
+
+        // Act & Assert
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                assertThatThrownBy(() -> snapshotService.exportTo(output))
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasCauseInstanceOf(QueryTimeoutException.class));
+    }
+
+    private static ProductView product(String barcode) {
+        return new ProductView(barcode, "Product " + barcode, new BigDecimal("1.99"), 5, null, null, 0L);
+    }
+
+    /**
+     * Holds the first block back until the range failed, so the failure meets a full queue.
+     */
+    private static final class GatedOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final CountDownLatch gate;
+
+        private volatile boolean armed;
+
+        GatedOutputStream(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (armed) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            bytes.write(b);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ciprian.store_management_tool.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class CatalogVersionTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void incrementAfterCommit_ShouldKeepTheETagUntilTheTransactionCommits() {
+        // Arrange
+        String before = catalogVersion.eTag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        catalogVersion.incrementAfterCommit();
+
+        // Assert
+        assertThat(catalogVersion.eTag()).isEqualTo(before);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(catalogVersion.eTag()).isNotEqualTo(before);
+    }
+
+    @Test
+    void incrementAfterCommit_WhenTheTransactionRollsBack_ShouldKeepTheETag() {
+        // Arrange
+        String before = catalogVersion.eTag();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        catalogVersion.incrementAfterCommit();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        assertThat(catalogVersion.eTag()).isEqualTo(before);
+    }
+
+    @Test
+    void increment_WithChangeDelay_ShouldKeepTheETagUntilTheDelayPassed() {
+        // Arrange
+        CatalogVersion delayed = new CatalogVersion(Duration.ofMillis(200));
+        String before = delayed.eTag();
+
+        // Act
+        delayed.increment();
+
+        // Assert
+        assertThat(delayed.eTag()).isEqualTo(before);
+        await().atMost(Duration.ofSeconds(2)).until(() -> !delayed.eTag().equals(before));
+    }
+
+    @Test
+    void eTag_OfAnotherInstance_ShouldNotMatch() {
+        // Act & Assert
+        assertThat(new CatalogVersion().eTag()).isNotEqualTo(catalogVersion.eTag());
+    }
+}
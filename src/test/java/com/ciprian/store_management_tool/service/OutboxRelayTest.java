@@ -0,0 +1,203 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.ProductCreatedEvent;
+import com.ciprian.store_management_tool.dto.ProductDeletedEvent;
+import com.ciprian.store_management_tool.model.OutboxEvent;
+import com.ciprian.store_management_tool.repository.OutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxRelay relay;
+
+    private OutboxEvent outboxEvent;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxRepository, kafkaTemplate, objectMapper, transactionTemplate, meterRegistry,
+                10, 1000, 200, 1000);
+
+        ProductCreatedEvent event = new ProductCreatedEvent("123456789", "Test Product 1", new BigDecimal("19.99"), 10, 0);
+        outboxEvent = new OutboxEvent(42L, "123456789", "ProductCreatedEvent", objectMapper.writeValueAsString(event));
+    }
+
+    @Test
+    void relayBatch_WhenKafkaAcknowledges_ShouldSendKeyedSequencedEventsAndDeleteThem() {
+        // Arrange
+        when(outboxRepository.tryLockRelay()).thenReturn(true);
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of(outboxEvent));
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        // Act
+        int sent = relay.relayBatch();
+
+        // Assert
+        assertThat(sent).isEqualTo(1);
+        verify(kafkaTemplate).send(eq(ProductEventPublisher.TOPIC), eq("123456789"),
+                eq(new ProductCreatedEvent("123456789", "Test Product 1", new BigDecimal("19.99"), 10, 42)));
+        verify(outboxRepository).deleteAll(List.of(outboxEvent));
+        assertThat(meterRegistry.get("products.outbox.sent").tag("result", "ack").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("products.outbox.send.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_ShouldReadEveryEventTypeBack() throws Exception {
+        // Arrange
+        ProductDeletedEvent deleted = ProductDeletedEvent.of("123456789");
+        OutboxEvent deletedOutboxEvent = new OutboxEvent(43L, "123456789", "ProductDeletedEvent",
+                objectMapper.writeValueAsString(deleted));
+        when(outboxRepository.tryLockRelay()).thenReturn(true);
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of(deletedOutboxEvent));
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        // Act
+        relay.relayBatch();
+
+        // Assert
+        verify(kafkaTemplate).send(ProductEventPublisher.TOPIC, "123456789", new ProductDeletedEvent("123456789", 43));
+    }
+
+    @Test
+    void relayBatch_WhenEventCannotBeRead_ShouldMoveItToDeadLettersAndSendTheRest() {
+        // Arrange
+        OutboxEvent unknownType = new OutboxEvent(40L, "111", "ProductRenamedEvent", "{}");
+        OutboxEvent unreadable = new OutboxEvent(41L, "222", "ProductCreatedEvent", "{not json");
+        when(outboxRepository.tryLockRelay()).thenReturn(true);
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of(unknownType, unreadable, outboxEvent));
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new SendResult<>(null, null)));
+
+        // Act
+        int processed = relay.relayBatch();
+
+        // Assert
+        assertThat(processed).isEqualTo(3);
+        verify(outboxRepository).moveToDeadLetters(eq(unknownType), anyString());
+        verify(outboxRepository).moveToDeadLetters(eq(unreadable), anyString());
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+        verify(outboxRepository).deleteAll(List.of(outboxEvent));
+        assertThat(meterRegistry.get("products.outbox.sent").tag("result", "dead_letter").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void relayBatch_WhenKafkaFails_ShouldKeepEventsInOutbox() {
+        // Arrange
+        when(outboxRepository.tryLockRelay()).thenReturn(true);
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of(outboxEvent));
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> relay.relayBatch()).isInstanceOf(IllegalStateException.class);
+        verify(outboxRepository, never()).deleteAll(any());
+        assertThat(meterRegistry.get("products.outbox.sent").tag("result", "failure").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relay_WhenBatchesKeepFailing_ShouldBackOffUpToTheMaximum() {
+        // Arrange
+        when(transactionTemplate.execute(any())).thenThrow(new IllegalStateException("broker down"));
+
+        // Act & Assert
+        relay.relay();
+        assertThat(relay.getBackoffMs()).isEqualTo(200);
+
+        // the second call is skipped while backing off
+        relay.relay();
+        verify(transactionTemplate, times(1)).execute(any());
+
+        for (int attempt = 0; attempt < 5; attempt++) {
+            ReflectionTestUtils.setField(relay, "retryNotBefore", 0L);
+            relay.relay();
+        }
+        assertThat(relay.getBackoffMs()).isEqualTo(1000);
+    }
+
+    @Test
+    void relay_AfterSuccessfulRun_ShouldResetBackoff() {
+        // Arrange
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new IllegalStateException("broker down"))
+                .thenReturn(0);
+
+        // Act
+        relay.relay();
+        ReflectionTestUtils.setField(relay, "retryNotBefore", 0L);
+        relay.relay();
+
+        // Assert
+        assertThat(relay.getBackoffMs()).isZero();
+    }
+
+    @Test
+    void relayBatch_WhenOutboxIsEmpty_ShouldNotTouchKafka() {
+        // Arrange
+        when(outboxRepository.tryLockRelay()).thenReturn(true);
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of());
+
+        // Act
+        int sent = relay.relayBatch();
+
+        // Assert
+        assertThat(sent).isZero();
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void relayBatch_WhenAnotherInstanceIsRelaying_ShouldSkipTheRun() {
+        // Arrange
+        when(outboxRepository.tryLockRelay()).thenReturn(false);
+
+        // Act
+        int sent = relay.relayBatch();
+
+        // Assert
+        assertThat(sent).isZero();
+        verify(outboxRepository, never()).lockNextBatch(anyInt());
+        verifyNoInteractions(kafkaTemplate);
+    }
+}
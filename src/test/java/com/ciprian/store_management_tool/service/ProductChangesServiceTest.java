@@ -0,0 +1,172 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.ChangePosition;
+import com.ciprian.store_management_tool.dto.ChangesToken;
+import com.ciprian.store_management_tool.dto.ProductChange;
+import com.ciprian.store_management_tool.dto.ProductChanges;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.exception.ChangesTokenException;
+import com.ciprian.store_management_tool.exception.StoreExceptionType;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import com.ciprian.store_management_tool.repository.ProductTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangesServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 7, 26, 10, 0);
+
+    private static final long OLDEST_RUNNING = 500;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTombstoneRepository tombstoneRepository;
+
+    private ProductChangesService changesService;
+
+    @BeforeEach
+    void setUp() {
+        changesService = new ProductChangesService(productRepository, tombstoneRepository, 30);
+    }
+
+    @Test
+    void changesSince_ShouldMergeUpdatesAndTombstonesKeepingLatestPerBarcode() {
+        // Arrange
+        ChangePosition since = new ChangePosition(100, "");
+        ProductChange updated = product(200, "222");
+        ProductChange recreated = product(300, "111");
+        when(productRepository.currentTimestamp()).thenReturn(NOW);
+        when(productRepository.oldestRunningTransaction()).thenReturn(OLDEST_RUNNING);
+        when(productRepository.findChangedBetween(since, OLDEST_RUNNING, 10)).thenReturn(List.of(updated, recreated));
+        when(tombstoneRepository.findDeletedBetween(since, OLDEST_RUNNING, 10)).thenReturn(List.of(
+                tombstone(150, "111"),
+                tombstone(400, "333")));
+
+        // Act
+        ProductChanges changes = changesService.changesSince(new ChangesToken(since, NOW.minusHours(1)).encode(), 10);
+
+        // Assert
+        assertThat(changes.updated()).containsExactly(updated.product(), recreated.product());
+        assertThat(changes.deleted()).containsExactly("333");
+        assertThat(changes.hasMore()).isFalse();
+        assertThat(ChangesToken.decode(changes.nextToken()))
+                .isEqualTo(new ChangesToken(ChangePosition.before(OLDEST_RUNNING), NOW));
+    }
+
+    @Test
+    void changesSince_WhenPageIsFull_ShouldContinueFromLastChange() {
+        // Arrange
+        ProductChange first = product(200, "111");
+        ProductChange second = product(300, "222");
+        when(productRepository.currentTimestamp()).thenReturn(NOW);
+        when(productRepository.oldestRunningTransaction()).thenReturn(OLDEST_RUNNING);
+        when(productRepository.findChangedBetween(any(), anyLong(), anyInt())).thenReturn(List.of(first, second));
+        when(tombstoneRepository.findDeletedBetween(any(), anyLong(), anyInt()))
+                .thenReturn(List.of(tombstone(250, "999")));
+
+        // Act
+        ProductChanges changes = changesService.changesSince(null, 2);
+
+        // Assert
+        assertThat(changes.updated()).containsExactly(first.product());
+        assertThat(changes.deleted()).containsExactly("999");
+        assertThat(changes.hasMore()).isTrue();
+        assertThat(ChangesToken.decode(changes.nextToken()).position()).isEqualTo(new ChangePosition(250, "999"));
+    }
+
+    @Test
+    void changesSince_WhenNoTransactionBeforeTheOldestRunningOneIsNew_ShouldReturnNothingWithAFreshToken() {
+        // Arrange
+        ChangePosition since = ChangePosition.before(OLDEST_RUNNING);
+        when(productRepository.currentTimestamp()).thenReturn(NOW);
+        when(productRepository.oldestRunningTransaction()).thenReturn(OLDEST_RUNNING);
+
+        // Act
+        ProductChanges changes = changesService.changesSince(new ChangesToken(since, NOW.minusDays(29)).encode(), 10);
+
+        // Assert
+        assertThat(changes.updated()).isEmpty();
+        assertThat(changes.deleted()).isEmpty();
+        assertThat(ChangesToken.decode(changes.nextToken())).isEqualTo(new ChangesToken(since, NOW));
+        verify(productRepository).currentTimestamp();
+        verify(productRepository).oldestRunningTransaction();
+        verifyNoMoreInteractions(productRepository, tombstoneRepository);
+    }
+
+    @Test
+    void changesSince_WhenTokenIsOlderThanRetention_ShouldThrowExpired() {
+        // Arrange
+        String token = new ChangesToken(new ChangePosition(100, ""), NOW.minusDays(31)).encode();
+        when(productRepository.currentTimestamp()).thenReturn(NOW);
+
+        // Act & Assert
+        assertThatThrownBy(() -> changesService.changesSince(token, 10))
+                .isInstanceOf(ChangesTokenException.class)
+                .extracting("exceptionType")
+                .isEqualTo(StoreExceptionType.CHANGES_TOKEN_EXPIRED);
+    }
+
+    @Test
+    void changesSince_WhenTokenIsFromTheTimestampOrderedFeed_ShouldThrowExpired() {
+        // Arrange
+        String token = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((NOW.minusMinutes(1) + "|111").getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        assertThatThrownBy(() -> changesService.changesSince(token, 10))
+                .isInstanceOf(ChangesTokenException.class)
+                .extracting("exceptionType")
+                .isEqualTo(StoreExceptionType.CHANGES_TOKEN_EXPIRED);
+    }
+
+    @Test
+    void changesSince_WhenTokenIsGarbage_ShouldThrowInvalid() {
+        // Act & Assert
+        assertThatThrownBy(() -> changesService.changesSince("not-a-token", 10))
+                .isInstanceOf(ChangesTokenException.class)
+                .extracting("exceptionType")
+                .isEqualTo(StoreExceptionType.CHANGES_TOKEN_INVALID);
+    }
+
+    @Test
+    void pruneTombstones_ShouldDeleteTombstonesPastRetention() {
+        // Arrange
+        when(productRepository.currentTimestamp()).thenReturn(NOW);
+
+        // Act
+        changesService.pruneTombstones();
+
+        // Assert
+        verify(tombstoneRepository).deleteOlderThan(NOW.minusDays(30));
+    }
+
+    private static ProductChange product(long transactionId, String barcode) {
+        return new ProductChange(new ChangePosition(transactionId, barcode),
+                new ProductView(barcode, "Product " + barcode, new BigDecimal("9.99"), 0, null, NOW, 0L));
+    }
+
+    private static ProductChange tombstone(long transactionId, String barcode) {
+        return new ProductChange(new ChangePosition(transactionId, barcode), null);
+    }
+}
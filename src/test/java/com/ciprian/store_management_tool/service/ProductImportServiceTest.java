@@ -0,0 +1,171 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.ProductImportResult;
+import com.ciprian.store_management_tool.dto.ProductImportSummary;
+import com.ciprian.store_management_tool.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    private ProductImportService importService;
+
+    private final List<List<Product>> savedChunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportService(productService, new ObjectMapper(), 2);
+    }
+
+    private void givenEveryRowIsCreated() {
+        when(productService.saveAll(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<Product> chunk = invocation.getArgument(0);
+            int firstRow = invocation.getArgument(1);
+            savedChunks.add(List.copyOf(chunk));
+            List<ProductImportResult> results = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(ProductImportResult.created(firstRow + i, chunk.get(i).getBarcode()));
+            }
+            return results;
+        });
+    }
+
+    private void givenTheChunkStartingAtRowFails(int failingRow) {
+        givenEveryRowIsCreated();
+        doThrow(new QueryTimeoutException("timeout")).when(productService).saveAll(anyList(), eq(failingRow));
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importAll_ShouldSaveInChunksOfBatchSize() {
+        // Arrange
+        givenEveryRowIsCreated();
+        List<Product> products = List.of(
+                Product.builder().barcode("1").build(),
+                Product.builder().barcode("2").build(),
+                Product.builder().barcode("3").build());
+
+        // Act
+        ProductImportSummary summary = importService.importAll(products);
+
+        // Assert
+        assertThat(summary.created()).isEqualTo(3);
+        assertThat(summary.failed()).isZero();
+        assertThat(summary.results()).extracting(ProductImportResult::row).containsExactly(1, 2, 3);
+        assertThat(savedChunks).extracting(List::size).containsExactly(2, 1);
+    }
+
+    @Test
+    void importNdjson_ShouldReadOneProductPerLine() throws Exception {
+        // Arrange
+        givenEveryRowIsCreated();
+        String ndjson = """
+                {"barcode":"1","name":"Milk","price":3.99,"quantity":10}
+                {"barcode":"2","name":"Bread","price":1.50,"quantity":5}
+                {"barcode":"3","name":"Eggs","price":2.10,"quantity":7}
+                """;
+        List<ProductImportResult> results = new ArrayList<>();
+
+        // Act
+        importService.importNdjson(input(ndjson), results::add);
+
+        // Assert
+        assertThat(results).extracting(ProductImportResult::barcode).containsExactly("1", "2", "3");
+        assertThat(savedChunks.get(1).getFirst().getPrice()).isEqualByComparingTo(new BigDecimal("2.10"));
+        verify(productService, times(2)).saveAll(anyList(), anyInt());
+    }
+
+    @Test
+    void importCsv_ShouldMapColumnsByHeader() throws Exception {
+        // Arrange
+        givenEveryRowIsCreated();
+        String csv = """
+                barcode,name,price,quantity
+                1,Milk,3.99,10
+                """;
+        List<ProductImportResult> results = new ArrayList<>();
+
+        // Act
+        importService.importCsv(input(csv), results::add);
+
+        // Assert
+        assertThat(results).extracting(ProductImportResult::status).containsExactly(ProductImportResult.Status.CREATED);
+        Product product = savedChunks.getFirst().getFirst();
+        assertThat(product.getName()).isEqualTo("Milk");
+        assertThat(product.getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void importNdjson_WhenRowIsUnreadable_ShouldSaveReadRowsAndReportFailure() throws Exception {
+        // Arrange
+        givenEveryRowIsCreated();
+        String ndjson = """
+                {"barcode":"1","name":"Milk","price":3.99,"quantity":10}
+                {"barcode":"2","name":
+                """;
+        List<ProductImportResult> results = new ArrayList<>();
+
+        // Act
+        importService.importNdjson(input(ndjson), results::add);
+
+        // Assert
+        assertThat(results).extracting(ProductImportResult::status).containsExactly(
+                ProductImportResult.Status.CREATED,
+                ProductImportResult.Status.INVALID);
+        assertThat(results.get(1).row()).isEqualTo(2);
+    }
+
+    @Test
+    void importNdjson_WhenAChunkFails_ShouldReportItsRowsAndImportTheRest() throws Exception {
+        // Arrange
+        givenTheChunkStartingAtRowFails(3);
+        String ndjson = """
+                {"barcode":"1","name":"Milk","price":3.99,"quantity":10}
+                {"barcode":"2","name":"Bread","price":1.50,"quantity":5}
+                {"barcode":"3","name":"Eggs","price":2.10,"quantity":7}
+                {"barcode":"4","name":"Salt","price":0.90,"quantity":3}
+                {"barcode":"5","name":"Tea","price":4.20,"quantity":8}
+                """;
+        List<ProductImportResult> results = new ArrayList<>();
+
+        // Act
+        importService.importNdjson(input(ndjson), results::add);
+
+        // Assert
+        assertThat(results).extracting(ProductImportResult::status).containsExactly(
+                ProductImportResult.Status.CREATED,
+                ProductImportResult.Status.CREATED,
+                ProductImportResult.Status.FAILED,
+                ProductImportResult.Status.FAILED,
+                ProductImportResult.Status.CREATED);
+        assertThat(results).extracting(ProductImportResult::barcode).containsExactly("1", "2", "3", "4", "5");
+    }
+}
@@ -0,0 +1,140 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.exception.DuplicateProductException;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import({TestConfig.class, ProductServiceConcurrencyTest.StatementCountingConfig.class})
+@ActiveProfiles("test")
+class ProductServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int CREATES_PER_THREAD = 50;
+    private static final int DISTINCT_BARCODES = 100;
+
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM product_outbox");
+    }
+
+    @Test
+    void save_UnderConcurrentDuplicates_ShouldUseTwoStatementsPerCreateAndKeepOneRowPerBarcode() throws Exception {
+        // Arrange
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int offset = thread;
+            tasks.add(() -> {
+                for (int i = 0; i < CREATES_PER_THREAD; i++) {
+                    String barcode = "bc-" + ((offset * CREATES_PER_THREAD + i) % DISTINCT_BARCODES);
+                    try {
+                        productService.save(Product.builder()
+                                .barcode(barcode)
+                                .name("Product " + barcode)
+                                .price(new BigDecimal("1.99"))
+                                .quantity(1)
+                                .build());
+                        created.incrementAndGet();
+                    } catch (DuplicateProductException e) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        STATEMENTS.set(0);
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        int statements = STATEMENTS.get();
+
+        // Assert
+        int creates = THREADS * CREATES_PER_THREAD;
+        assertThat(created.get()).isEqualTo(DISTINCT_BARCODES);
+        assertThat(duplicates.get()).isEqualTo(creates - DISTINCT_BARCODES);
+        assertThat(productRepository.count()).isEqualTo(DISTINCT_BARCODES);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_outbox", Integer.class))
+                .isEqualTo(DISTINCT_BARCODES);
+        // a create is the product insert plus its outbox row, a duplicate only the insert that did nothing;
+        // the previous existsById + save path needed one more statement for each
+        assertThat(statements).isEqualTo(2 * created.get() + duplicates.get());
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return countingProxy(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static <T> T countingProxy(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                    STATEMENTS.incrementAndGet();
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    return result instanceof Connection connection ? countingProxy(Connection.class, connection) : result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+        }
+    }
+}
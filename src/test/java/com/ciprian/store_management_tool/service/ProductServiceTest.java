@@ -1,22 +1,43 @@
 package com.ciprian.store_management_tool.service;
 
+import com.ciprian.store_management_tool.dto.ProductCreatedEvent;
+import com.ciprian.store_management_tool.dto.ProductDeletedEvent;
+import com.ciprian.store_management_tool.dto.ProductFilter;
+import com.ciprian.store_management_tool.dto.ProductImportResult;
+import com.ciprian.store_management_tool.dto.ProductPriceChangedEvent;
+import com.ciprian.store_management_tool.dto.ProductQuantityChangedEvent;
+import com.ciprian.store_management_tool.dto.ProductSort;
+import com.ciprian.store_management_tool.dto.ProductView;
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.exception.DuplicateProductException;
+import com.ciprian.store_management_tool.exception.InsufficientStockException;
+import com.ciprian.store_management_tool.exception.InvalidStockMovementException;
+import com.ciprian.store_management_tool.exception.ProductNotFoundException;
+import com.ciprian.store_management_tool.exception.ProductVersionMismatchException;
 import com.ciprian.store_management_tool.model.Product;
 import com.ciprian.store_management_tool.repository.ProductRepository;
+import com.ciprian.store_management_tool.repository.ProductTombstoneRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -27,14 +48,28 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @Mock
     private ProductEventPublisher productEventPublisher;
 
+    @Mock
+    private ProductMetrics productMetrics;
+
+    @Mock
+    private CatalogChanges catalogChanges;
+
     @InjectMocks
     private ProductService productService;
 
     private Product product1;
     private Product product2;
+    private ProductView view1;
+    private ProductView view2;
 
     @BeforeEach
     void setUp() {
@@ -55,10 +90,13 @@ class ProductServiceTest {
                 .quantity(5)
                 .createdAt(fixedTime)
                 .build();
+
+        view1 = new ProductView("123456789", "Test Product 1", new BigDecimal("19.99"), 10, fixedTime, fixedTime, 0L);
+        view2 = new ProductView("987654321", "Test Product 2", new BigDecimal("29.99"), 5, fixedTime, fixedTime, 0L);
     }
 
     @Test
-    void save_ShouldSetCreatedAtAndSaveProduct() {
+    void save_ShouldSetCreatedAtAndInsertProduct() {
         // Arrange
         Product productToSave = Product.builder()
                 .barcode("123456789")
@@ -67,7 +105,7 @@ class ProductServiceTest {
                 .quantity(10)
                 .build();
 
-        when(productRepository.save(any(Product.class))).thenReturn(product1);
+        when(productRepository.insert(productToSave)).thenReturn(true);
 
         // Act
         Product savedProduct = productService.save(productToSave);
@@ -75,30 +113,90 @@ class ProductServiceTest {
         // Assert
         assertThat(savedProduct).isNotNull();
         assertThat(savedProduct.getCreatedAt()).isNotNull();
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).insert(productToSave);
+        verify(productRepository, never()).existsById(any());
+        verify(productEventPublisher).publish(new ProductCreatedEvent("123456789", "Test Product", new BigDecimal("19.99"), 10, 0));
+        verify(catalogChanges).changedAfterCommit();
+    }
+
+    @Test
+    void save_WhenBarcodeAlreadyExists_ShouldThrowDuplicateProductException() {
+        // Arrange
+        when(productRepository.insert(product1)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.save(product1))
+                .isInstanceOf(DuplicateProductException.class)
+                .hasMessageContaining(product1.getBarcode());
+        verify(productEventPublisher, never()).publish(any());
+        verify(catalogChanges, never()).changedAfterCommit();
+        verify(productMetrics).duplicates(1);
+    }
+
+    @Test
+    void saveAll_ShouldInsertNewProductsAndReportDuplicatesAndInvalidRows() {
+        // Arrange
+        Product existing = Product.builder().barcode("123456789").name("Existing").price(new BigDecimal("1.00")).build();
+        Product fresh = Product.builder().barcode("555555555").name("Fresh").price(new BigDecimal("2.00")).build();
+        Product repeated = Product.builder().barcode("555555555").name("Fresh again").price(new BigDecimal("3.00")).build();
+        Product invalid = Product.builder().barcode("666666666").name("No price").build();
+
+        when(productRepository.findExistingBarcodes(Set.of("123456789", "555555555", "666666666")))
+                .thenReturn(Set.of("123456789"));
+
+        // Act
+        List<ProductImportResult> results = productService.saveAll(List.of(existing, fresh, repeated, invalid), 11);
+
+        // Assert
+        assertThat(results).extracting(ProductImportResult::row).containsExactly(11, 12, 13, 14);
+        assertThat(results).extracting(ProductImportResult::status).containsExactly(
+                ProductImportResult.Status.DUPLICATE,
+                ProductImportResult.Status.CREATED,
+                ProductImportResult.Status.DUPLICATE,
+                ProductImportResult.Status.INVALID);
+        assertThat(fresh.getCreatedAt()).isNotNull();
+        assertThat(fresh.getVersion()).isZero();
+        verify(productRepository).insertAll(List.of(fresh));
+        verify(productEventPublisher).publishAll(List.of(
+                new ProductCreatedEvent("555555555", "Fresh", new BigDecimal("2.00"), 0, 0)));
+        verify(productMetrics).duplicates(2);
+    }
+
+    @Test
+    void saveAll_WhenAllProductsExist_ShouldNotInsertOrPublish() {
+        // Arrange
+        when(productRepository.findExistingBarcodes(Set.of("123456789"))).thenReturn(Set.of("123456789"));
+
+        // Act
+        List<ProductImportResult> results = productService.saveAll(List.of(product1), 1);
+
+        // Assert
+        assertThat(results).extracting(ProductImportResult::isSuccess).containsExactly(false);
+        verify(productRepository, never()).insertAll(anyList());
+        verify(productEventPublisher, never()).publishAll(anyList());
     }
 
     @Test
     void findById_WhenProductExists_ShouldReturnProduct() {
         // Arrange
-        when(productRepository.findById("123456789")).thenReturn(Optional.of(product1));
+        when(productRepository.findViewByBarcode("123456789")).thenReturn(Optional.of(view1));
 
         // Act
-        Optional<Product> foundProduct = productService.findById("123456789");
+        Optional<ProductView> foundProduct = productService.findById("123456789");
 
         // Assert
         assertThat(foundProduct).isPresent();
-        assertThat(foundProduct.get().getBarcode()).isEqualTo("123456789");
+        assertThat(foundProduct.get().barcode()).isEqualTo("123456789");
         verify(productRepository).findById("123456789");
     }
 
     @Test
     void findById_WhenProductDoesNotExist_ShouldReturnEmpty() {
         // Arrange
-        when(productRepository.findById("nonexistent")).thenReturn(Optional.empty());
+        when(productRepository.findViewByBarcode("nonexistent")).thenReturn(Optional.empty());
 
         // Act
-        Optional<Product> foundProduct = productService.findById("nonexistent");
+        Optional<ProductView> foundProduct = productService.findById("nonexistent");
 
         // Assert
         assertThat(foundProduct).isEmpty();
@@ -106,27 +204,88 @@ class ProductServiceTest {
     }
 
     @Test
-    void findAll_ShouldReturnAllProducts() {
+    void findPage_WithoutCursor_ShouldStartFromFirstBarcode() {
         // Arrange
-        List<Product> productList = Arrays.asList(product1, product2);
-        when(productRepository.findAll()).thenReturn(productList);
+        List<ProductView> productList = Arrays.asList(view1, view2);
+        when(productRepository.findViewsByBarcodeGreaterThanOrderByBarcodeAsc("", Limit.of(10))).thenReturn(productList);
 
         // Act
-        List<Product> foundProducts = productService.findAll();
+        List<ProductView> foundProducts = productService.findPage(null, 10);
 
         // Assert
         assertThat(foundProducts).hasSize(2);
-        assertThat(foundProducts).containsExactly(product1, product2);
-        verify(productRepository).findAll();
+        assertThat(foundProducts).containsExactly(view1, view2);
+        verify(productRepository).findViewsByBarcodeGreaterThanOrderByBarcodeAsc("", Limit.of(10));
+    }
+
+    @Test
+    void findPage_WithCursor_ShouldContinueAfterCursor() {
+        // Arrange
+        when(productRepository.findViewsByBarcodeGreaterThanOrderByBarcodeAsc("123456789", Limit.of(1)))
+                .thenReturn(List.of(view2));
+
+        // Act
+        List<ProductView> foundProducts = productService.findPage("123456789", 1);
+
+        // Assert
+        assertThat(foundProducts).containsExactly(view2);
+    }
+
+    @Test
+    void findPage_WithFilter_ShouldQueryFromCursorPosition() {
+        // Arrange
+        ProductFilter filter = new ProductFilter(null, null, null, null, 5, null);
+        ProductSort sort = new ProductSort(ProductSort.Field.QUANTITY, false);
+        String cursor = sort.cursor(view1);
+        ProductSort.Position position = new ProductSort.Position(10, "123456789");
+        when(productRepository.findPage(filter, sort, position, 10)).thenReturn(List.of(view2));
+
+        // Act
+        List<ProductView> foundProducts = productService.findPage(filter, sort, cursor, 10);
+
+        // Assert
+        assertThat(foundProducts).containsExactly(view2);
+        verify(productRepository, never()).findViewsByBarcodeGreaterThanOrderByBarcodeAsc(any(), any());
+    }
+
+    @Test
+    void findPage_WithoutFilterOrSort_ShouldUseBarcodeKeyset() {
+        // Arrange
+        when(productRepository.findViewsByBarcodeGreaterThanOrderByBarcodeAsc("", Limit.of(10))).thenReturn(List.of(view1));
+
+        // Act
+        List<ProductView> foundProducts = productService.findPage(ProductFilter.NONE, ProductSort.DEFAULT, null, 10);
+
+        // Assert
+        assertThat(foundProducts).containsExactly(view1);
     }
 
     @Test
-    void deleteById_ShouldCallRepositoryDeleteById() {
+    void deleteById_WhenProductExists_ShouldDeleteRecordTombstoneAndPublishEvent() {
+        // Arrange
+        when(productRepository.deleteByBarcode("123456789")).thenReturn(1);
+
         // Act
         productService.deleteById("123456789");
 
         // Assert
-        verify(productRepository).deleteById("123456789");
+        verify(productRepository).deleteByBarcode("123456789");
+        verify(productTombstoneRepository).save("123456789");
+        verify(productEventPublisher).publish(new ProductDeletedEvent("123456789", 0));
+    }
+
+    @Test
+    void deleteById_WhenProductDoesNotExist_ShouldNotPublishEvent() {
+        // Arrange
+        when(productRepository.deleteByBarcode("nonexistent")).thenReturn(0);
+
+        // Act
+        productService.deleteById("nonexistent");
+
+        // Assert
+        verify(productTombstoneRepository, never()).save(any());
+        verify(productEventPublisher, never()).publish(any());
+        verify(productMetrics).notFound("deleteById");
     }
 
     @Test
@@ -139,33 +298,205 @@ class ProductServiceTest {
                 .price(newPrice)
                 .quantity(10)
                 .createdAt(product1.getCreatedAt())
+                .version(1L)
                 .build();
 
-        when(productRepository.findById("123456789")).thenReturn(Optional.of(product1));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productRepository.updatePrice("123456789", newPrice, null)).thenReturn(Optional.of(updatedProduct));
 
         // Act
-        Optional<Product> result = productService.updatePrice("123456789", newPrice);
+        Optional<Product> result = productService.updatePrice("123456789", newPrice, null);
 
         // Assert
         assertThat(result).isPresent();
         assertThat(result.get().getPrice()).isEqualByComparingTo(newPrice);
-        verify(productRepository).findById("123456789");
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).updatePrice("123456789", newPrice, null);
+        verify(productEventPublisher).publish(new ProductPriceChangedEvent("123456789", newPrice, 1L, 0));
+        verify(productMetrics).priceUpdated();
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
     void updatePrice_WhenProductDoesNotExist_ShouldReturnEmpty() {
         // Arrange
         BigDecimal newPrice = new BigDecimal("24.99");
-        when(productRepository.findById("nonexistent")).thenReturn(Optional.empty());
+        when(productRepository.updatePrice("nonexistent", newPrice, null)).thenReturn(Optional.empty());
 
         // Act
-        Optional<Product> result = productService.updatePrice("nonexistent", newPrice);
+        Optional<Product> result = productService.updatePrice("nonexistent", newPrice, null);
 
         // Assert
         assertThat(result).isEmpty();
-        verify(productRepository).findById("nonexistent");
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).existsById(any());
+        verify(productEventPublisher, never()).publish(any());
+        verify(productMetrics).notFound("updatePrice");
+    }
+
+    @Test
+    void updatePrice_WhenVersionIsStale_ShouldThrowVersionMismatch() {
+        // Arrange
+        BigDecimal newPrice = new BigDecimal("24.99");
+        when(productRepository.updatePrice("123456789", newPrice, 3L)).thenReturn(Optional.empty());
+        when(productRepository.existsById("123456789")).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.updatePrice("123456789", newPrice, 3L))
+                .isInstanceOf(ProductVersionMismatchException.class);
+    }
+
+    @Test
+    void updatePrice_WithVersionWhenProductDoesNotExist_ShouldReturnEmpty() {
+        // Arrange
+        BigDecimal newPrice = new BigDecimal("24.99");
+        when(productRepository.updatePrice("nonexistent", newPrice, 3L)).thenReturn(Optional.empty());
+        when(productRepository.existsById("nonexistent")).thenReturn(false);
+
+        // Act
+        Optional<Product> result = productService.updatePrice("nonexistent", newPrice, 3L);
+
+        // Assert
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void adjustStock_WhenStockIsSufficient_ShouldReturnProductAndPublishEvent() {
+        // Arrange
+        product1.setQuantity(7);
+        when(productRepository.adjustQuantity("123456789", -3)).thenReturn(Optional.of(product1));
+
+        // Act
+        Optional<Product> result = productService.adjustStock("123456789", -3);
+
+        // Assert
+        assertThat(result).contains(product1);
+        verify(productEventPublisher).publish(ProductQuantityChangedEvent.of("123456789", 7));
+    }
+
+    @Test
+    void adjustStock_WhenStockIsInsufficient_ShouldThrowInsufficientStock() {
+        // Arrange
+        when(productRepository.adjustQuantity("123456789", -50)).thenReturn(Optional.empty());
+        when(productRepository.existsById("123456789")).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.adjustStock("123456789", -50))
+                .isInstanceOf(InsufficientStockException.class);
+        verify(productEventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void adjustStock_WhenProductDoesNotExist_ShouldReturnEmpty() {
+        // Arrange
+        when(productRepository.adjustQuantity("nonexistent", 1)).thenReturn(Optional.empty());
+        when(productRepository.existsById("nonexistent")).thenReturn(false);
+
+        // Act
+        Optional<Product> result = productService.adjustStock("nonexistent", 1);
+
+        // Assert
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void adjustStock_WhenDeltaExceedsTheLimit_ShouldThrowInvalidStockMovement() {
+        // Act & Assert
+        assertThatThrownBy(() -> productService.adjustStock("123456789", StockMovement.MAX_DELTA + 1))
+                .isInstanceOf(InvalidStockMovementException.class);
+        verify(productRepository, never()).adjustQuantity(any(), anyInt());
+    }
+
+    @Test
+    void adjustStockBatch_ShouldMergeMovementsAndApplyThemInBarcodeOrder() {
+        // Arrange
+        List<StockMovement> basket = List.of(
+                new StockMovement("987654321", -1),
+                new StockMovement("123456789", -2),
+                new StockMovement("987654321", -1));
+        List<StockMovement> merged = List.of(
+                new StockMovement("123456789", -2),
+                new StockMovement("987654321", -2));
+        when(productRepository.adjustQuantities(merged)).thenReturn(new int[]{1, 1});
+        when(productRepository.findAllById(List.of("123456789", "987654321"))).thenReturn(List.of(product2, product1));
+
+        // Act
+        List<Product> result = productService.adjustStock(basket);
+
+        // Assert
+        assertThat(result).containsExactly(product1, product2);
+        verify(productEventPublisher).publishAll(List.of(
+                ProductQuantityChangedEvent.of("123456789", product1.getQuantity()),
+                ProductQuantityChangedEvent.of("987654321", product2.getQuantity())));
+    }
+
+    @Test
+    void adjustStockBatch_WhenOneProductIsShort_ShouldThrowAndPublishNothing() {
+        // Arrange
+        List<StockMovement> basket = List.of(
+                new StockMovement("123456789", -1),
+                new StockMovement("987654321", -100));
+        when(productRepository.adjustQuantities(basket)).thenReturn(new int[]{1, 0});
+        when(productRepository.existsById("987654321")).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.adjustStock(basket))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("987654321");
+        verify(productEventPublisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    void adjustStockBatch_WhenBarcodeIsUnknown_ShouldThrowNotFound() {
+        // Arrange
+        List<StockMovement> basket = List.of(new StockMovement("nonexistent", -1));
+        when(productRepository.adjustQuantities(basket)).thenReturn(new int[]{0});
+        when(productRepository.existsById("nonexistent")).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.adjustStock(basket))
+                .isInstanceOf(ProductNotFoundException.class);
     }
+
+    @Test
+    void adjustStockBatch_WhenBarcodeIsMissing_ShouldThrowInvalidStockMovement() {
+        // Arrange
+        List<StockMovement> basket = List.of(new StockMovement(null, -1));
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.adjustStock(basket))
+                .isInstanceOf(InvalidStockMovementException.class);
+        verify(productRepository, never()).adjustQuantities(anyList());
+    }
+
+    @Test
+    void adjustStockBatch_WhenMergedDeltaExceedsTheLimit_ShouldThrowInvalidStockMovement() {
+        // Arrange
+        List<StockMovement> basket = List.of(
+                new StockMovement("123456789", StockMovement.MAX_DELTA),
+                new StockMovement("123456789", 1));
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.adjustStock(basket))
+                .isInstanceOf(InvalidStockMovementException.class)
+                .hasMessageContaining("123456789");
+        verify(productRepository, never()).adjustQuantities(anyList());
+    }
+
+    @Test
+    void applyStockDeltas_ShouldDropUnknownBarcodesAndPublishTheRest() {
+        // Arrange
+        List<StockMovement> deltas = List.of(
+                new StockMovement("123456789", -500),
+                new StockMovement("nonexistent", -1));
+        when(productRepository.applyQuantityDeltas(deltas)).thenReturn(new int[]{1, 0});
+        product1.setQuantity(0);
+        when(productRepository.findAllById(List.of("123456789"))).thenReturn(List.of(product1));
+
+        // Act
+        List<Product> result = productService.applyStockDeltas(deltas);
+
+        // Assert
+        assertThat(result).containsExactly(product1);
+        verify(productEventPublisher).publishAll(List.of(ProductQuantityChangedEvent.of("123456789", 0)));
+    }
+
 }
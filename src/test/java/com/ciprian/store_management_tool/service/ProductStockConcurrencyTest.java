@@ -0,0 +1,128 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.config.TestConfig;
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.exception.InsufficientStockException;
+import com.ciprian.store_management_tool.model.Product;
+import com.ciprian.store_management_tool.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class ProductStockConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int MOVEMENTS_PER_THREAD = 50;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM product_outbox");
+    }
+
+    @Test
+    void adjustStock_UnderConcurrentDecrementsOfOneProduct_ShouldNeverOversell() throws Exception {
+        // Arrange
+        int stock = 100;
+        productRepository.save(product("hot", stock));
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            tasks.add(() -> {
+                for (int i = 0; i < MOVEMENTS_PER_THREAD; i++) {
+                    try {
+                        productService.adjustStock("hot", -1);
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        // Act
+        runAll(tasks);
+
+        // Assert
+        assertThat(sold.get()).isEqualTo(stock);
+        assertThat(rejected.get()).isEqualTo(THREADS * MOVEMENTS_PER_THREAD - stock);
+        assertThat(productRepository.findById("hot").orElseThrow().getQuantity()).isZero();
+    }
+
+    @Test
+    void adjustStock_UnderConcurrentBasketsInOppositeOrder_ShouldApplyAllWithoutDeadlock() throws Exception {
+        // Arrange
+        int stock = 1000;
+        productRepository.save(product("a", stock));
+        productRepository.save(product("b", stock));
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<StockMovement> basket = thread % 2 == 0
+                    ? List.of(new StockMovement("a", -1), new StockMovement("b", -1))
+                    : List.of(new StockMovement("b", -1), new StockMovement("a", -1));
+            tasks.add(() -> {
+                for (int i = 0; i < MOVEMENTS_PER_THREAD; i++) {
+                    productService.adjustStock(basket);
+                }
+                return null;
+            });
+        }
+
+        // Act
+        runAll(tasks);
+
+        // Assert
+        int baskets = THREADS * MOVEMENTS_PER_THREAD;
+        assertThat(productRepository.findById("a").orElseThrow().getQuantity()).isEqualTo(stock - baskets);
+        assertThat(productRepository.findById("b").orElseThrow().getQuantity()).isEqualTo(stock - baskets);
+    }
+
+    private static void runAll(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Product product(String barcode, int quantity) {
+        return Product.builder()
+                .barcode(barcode)
+                .name("Product " + barcode)
+                .price(new BigDecimal("1.99"))
+                .quantity(quantity)
+                .build();
+    }
+}
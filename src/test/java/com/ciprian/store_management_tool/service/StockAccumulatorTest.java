@@ -0,0 +1,140 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.StockMovement;
+import com.ciprian.store_management_tool.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockAccumulatorTest {
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private StockAccumulator accumulator;
+
+    @Test
+    void flush_ShouldApplyTheNetDeltaOfConcurrentMovements() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> accumulator.add("hot", -1));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        accumulator.add("cold", 5);
+
+        // Act
+        accumulator.flush();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockMovement>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productService).applyStockDeltas(captor.capture());
+        assertThat(captor.getValue()).containsExactlyInAnyOrder(
+                new StockMovement("hot", -1000),
+                new StockMovement("cold", 5));
+    }
+
+    @Test
+    void flush_WhenNothingIsPending_ShouldNotTouchTheDatabase() {
+        // Arrange
+        accumulator.add("hot", 2);
+        accumulator.add("hot", -2);
+
+        // Act
+        accumulator.flush();
+
+        // Assert
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void flush_WhenApplyFails_ShouldKeepDeltasForTheNextFlush() {
+        // Arrange
+        accumulator.add("hot", -3);
+        when(productService.applyStockDeltas(anyList()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of());
+
+        // Act
+        accumulator.flush();
+        accumulator.add("hot", -1);
+        accumulator.flush();
+
+        // Assert
+        verify(productService, times(2)).applyStockDeltas(anyList());
+        verify(productService).applyStockDeltas(List.of(new StockMovement("hot", -4)));
+    }
+
+    @Test
+    void flush_WhenBarcodeIsUnknown_ShouldForgetIt() {
+        // Arrange
+        accumulator.add("hot", -1);
+        accumulator.add("typo", -1);
+        when(productService.applyStockDeltas(anyList())).thenReturn(List.of(product("hot")));
+
+        // Act
+        accumulator.flush();
+
+        // Assert
+        assertThat(accumulator.pendingBarcodes()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_WhenAMovementOfAnUnknownBarcodeArrivesDuringTheFlush_ShouldKeepIt() {
+        // Arrange
+        accumulator.add("new", -1);
+        when(productService.applyStockDeltas(anyList())).thenAnswer(invocation -> {
+            // the product is created and sold while the first delta is being dropped
+            accumulator.add("new", -2);
+            return List.of();
+        }).thenReturn(List.of(product("new")));
+
+        // Act
+        accumulator.flush();
+        accumulator.flush();
+
+        // Assert
+        verify(productService).applyStockDeltas(List.of(new StockMovement("new", -2)));
+        assertThat(accumulator.pendingBarcodes()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_WhenNetDeltaExceedsTheMovementLimit_ShouldApplyTheRestInTheNextFlush() {
+        // Arrange
+        accumulator.add("hot", StockMovement.MAX_DELTA);
+        accumulator.add("hot", StockMovement.MAX_DELTA);
+        when(productService.applyStockDeltas(anyList())).thenReturn(List.of(product("hot")));
+
+        // Act
+        accumulator.flush();
+        accumulator.flush();
+        accumulator.flush();
+
+        // Assert
+        verify(productService, times(2)).applyStockDeltas(List.of(new StockMovement("hot", StockMovement.MAX_DELTA)));
+        verify(productService, times(2)).applyStockDeltas(anyList());
+    }
+
+    private static Product product(String barcode) {
+        return Product.builder().barcode(barcode).build();
+    }
+}
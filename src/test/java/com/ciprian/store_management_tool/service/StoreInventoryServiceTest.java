@@ -0,0 +1,143 @@
+package com.ciprian.store_management_tool.service;
+
+import com.ciprian.store_management_tool.dto.StoreStock;
+import com.ciprian.store_management_tool.dto.StoreStockQuery;
+import com.ciprian.store_management_tool.exception.InsufficientStockException;
+import com.ciprian.store_management_tool.exception.InvalidProductQueryException;
+import com.ciprian.store_management_tool.exception.InvalidStoreStockException;
+import com.ciprian.store_management_tool.repository.StoreInventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StoreInventoryServiceTest {
+
+    private static final String BARCODE = "123456789";
+
+    @Mock
+    private StoreInventoryRepository storeInventoryRepository;
+
+    @Mock
+    private ProductMetrics productMetrics;
+
+    @Mock
+    private ObjectProvider<RecentWrites> recentWrites;
+
+    @InjectMocks
+    private StoreInventoryService storeInventoryService;
+
+    private StoreStock stock;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storeInventoryService, "maxQuerySize", 3);
+        stock = new StoreStock(BARCODE, "store-1", 5, new BigDecimal("19.99"), LocalDateTime.of(2025, 7, 26, 10, 0));
+    }
+
+    @Test
+    void findStores_WhenProductIsUnknown_ShouldCountTheMiss() {
+        // Arrange
+        when(storeInventoryRepository.findByBarcode(BARCODE, true)).thenReturn(Optional.empty());
+
+        // Act
+        Optional<List<StoreStock>> stores = storeInventoryService.findStores(BARCODE, true);
+
+        // Assert
+        assertThat(stores).isEmpty();
+        verify(productMetrics).notFound("findStores");
+    }
+
+    @Test
+    void findStock_ShouldQueryEachBarcodeAndStoreOnce() {
+        // Arrange
+        StoreStockQuery query = new StoreStockQuery(List.of(BARCODE, BARCODE, "987654321"), null, false);
+        when(storeInventoryRepository.findByBarcodes(Set.of(BARCODE, "987654321"), Set.of(), false))
+                .thenReturn(List.of(stock));
+
+        // Act
+        List<StoreStock> result = storeInventoryService.findStock(query);
+
+        // Assert
+        assertThat(result).containsExactly(stock);
+    }
+
+    @Test
+    void findStock_WithTooManyStores_ShouldThrowInvalidProductQueryException() {
+        // Arrange
+        StoreStockQuery query = new StoreStockQuery(List.of(BARCODE), List.of("s1", "s2", "s3", "s4"), false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> storeInventoryService.findStock(query))
+                .isInstanceOf(InvalidProductQueryException.class);
+        verify(storeInventoryRepository, never()).findByBarcodes(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void save_WithNegativeQuantity_ShouldThrowInvalidStoreStockException() {
+        // Act & Assert
+        assertThatThrownBy(() -> storeInventoryService.save(BARCODE, "store-1", -1, null))
+                .isInstanceOf(InvalidStoreStockException.class);
+        verify(storeInventoryRepository, never()).save(anyString(), anyString(), anyInt(), any());
+    }
+
+    @Test
+    void save_ShouldReturnTheStockWithItsEffectivePrice() {
+        // Arrange
+        when(storeInventoryRepository.save(BARCODE, "store-1", 5, null)).thenReturn(true);
+        when(storeInventoryRepository.findOne(BARCODE, "store-1")).thenReturn(Optional.of(stock));
+
+        // Act
+        Optional<StoreStock> result = storeInventoryService.save(BARCODE, "store-1", 5, null);
+
+        // Assert
+        assertThat(result).contains(stock);
+        verify(recentWrites).ifAvailable(any());
+    }
+
+    @Test
+    void adjustStock_WhenStoreIsShort_ShouldThrowInsufficientStockException() {
+        // Arrange
+        when(storeInventoryRepository.adjustQuantity(BARCODE, "store-1", -10)).thenReturn(false);
+        when(storeInventoryRepository.exists(BARCODE, "store-1")).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> storeInventoryService.adjustStock(BARCODE, "store-1", -10))
+                .isInstanceOf(InsufficientStockException.class);
+    }
+
+    @Test
+    void adjustStock_WhenStoreDoesNotListTheProduct_ShouldReturnEmpty() {
+        // Arrange
+        when(storeInventoryRepository.adjustQuantity(BARCODE, "store-9", -1)).thenReturn(false);
+        when(storeInventoryRepository.exists(BARCODE, "store-9")).thenReturn(false);
+
+        // Act
+        Optional<StoreStock> result = storeInventoryService.adjustStock(BARCODE, "store-9", -1);
+
+        // Assert
+        assertThat(result).isEmpty();
+        verify(productMetrics).notFound("adjustStoreStock");
+    }
+}